@@ -0,0 +1,259 @@
+/*
+ * Copyright (c) 2002-2025, City of Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.scheduler.quartz.benchmark;
+
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.h2.tools.RunScript;
+import org.quartz.Scheduler;
+import org.quartz.impl.StdSchedulerFactory;
+
+import fr.paris.lutece.plugins.scheduler.quartz.QuartzJobScheduler;
+import fr.paris.lutece.plugins.scheduler.quartz.job.LuteceJobFactory;
+import fr.paris.lutece.plugins.scheduler.quartz.service.DaemonEntryJobService;
+import fr.paris.lutece.plugins.scheduler.quartz.service.ExecutionHistoryService;
+import fr.paris.lutece.plugins.scheduler.quartz.service.JobChainService;
+import fr.paris.lutece.plugins.scheduler.quartz.service.JobMetricsService;
+import fr.paris.lutece.plugins.scheduler.quartz.service.JobSchedulerService;
+import fr.paris.lutece.plugins.scheduler.quartz.service.JobWatchdogService;
+import fr.paris.lutece.plugins.scheduler.quartz.service.QuartzCacheService;
+import fr.paris.lutece.portal.service.daemon.AppDaemonService;
+import fr.paris.lutece.portal.service.daemon.DaemonEntry;
+import jakarta.enterprise.inject.Produces;
+import jakarta.enterprise.inject.se.SeContainer;
+import jakarta.enterprise.inject.se.SeContainerInitializer;
+
+/**
+ * Helpers shared by the benchmarks : CDI container, stub daemons and schedulers backed by a RAM or an embedded H2 job store.
+ */
+final class BenchmarkSupport
+{
+    static final String STORE_RAM = "RAM";
+    static final String STORE_JDBC = "JDBC";
+    static final String DAEMON_ID_PREFIX = "benchDaemon";
+
+    static final String H2_SCHEMA = "sql/hsqldb/create_db_quartzscheduler.sql";
+    static final String TABLE_PREFIX = "qrtz_";
+    private static final String CLUSTER_PROPERTY_PREFIX = "quartzscheduler.daemon.";
+    private static final String CLUSTER_PROPERTY_SUFFIX = ".disallowedClusterConcurrentExecution";
+    private static final AtomicInteger SEQUENCE = new AtomicInteger( );
+
+    private BenchmarkSupport( )
+    {
+    }
+
+    /**
+     * Boot a CDI container holding the plugin beans used on the fire path
+     * 
+     * @return the container
+     */
+    static SeContainer startContainer( )
+    {
+        return SeContainerInitializer.newInstance( ).disableDiscovery( )
+                .addBeanClasses( DaemonEntryJobService.class, ExecutionHistoryService.class, JobChainService.class, JobMetricsService.class,
+                        JobWatchdogService.class, QuartzCacheService.class, StubJob.class, JobSchedulerServiceProducer.class )
+                .initialize( );
+    }
+
+    /**
+     * Register stub daemons in the Lutece daemon registry
+     * 
+     * @param nCount
+     *            the number of daemons
+     * @param bClustered
+     *            true if the daemons must be routed to the clustered scheduler
+     * @return the registered entries
+     * @throws Exception
+     *             if a daemon can't be registered
+     */
+    static DaemonEntry [ ] registerDaemons( int nCount, boolean bClustered ) throws Exception
+    {
+        DaemonEntry [ ] entries = new DaemonEntry [ nCount];
+        for ( int i = 0; i < nCount; i++ )
+        {
+            String strId = DAEMON_ID_PREFIX + i;
+            System.setProperty( CLUSTER_PROPERTY_PREFIX + strId + CLUSTER_PROPERTY_SUFFIX, Boolean.toString( bClustered ) );
+            DaemonEntry entry = AppDaemonService.getDaemonEntry( strId );
+            if ( null == entry )
+            {
+                entry = new DaemonEntry( );
+                entry.setId( strId );
+                entry.setClassName( StubDaemon.class.getName( ) );
+                entry.setPluginName( "core" );
+                entry.setInterval( 3600 );
+                AppDaemonService.registerDaemon( entry );
+            }
+            entries [i] = entry;
+        }
+        return entries;
+    }
+
+    /**
+     * Create a scheduler, not started, with the plugin job factory
+     * 
+     * @param strJobStore
+     *            RAM or JDBC
+     * @return the scheduler
+     * @throws Exception
+     *             if the scheduler can't be created
+     */
+    static Scheduler newScheduler( String strJobStore ) throws Exception
+    {
+        int nId = SEQUENCE.incrementAndGet( );
+        Properties properties = new Properties( );
+        properties.setProperty( "org.quartz.scheduler.instanceName", "BenchmarkScheduler" + nId );
+        properties.setProperty( "org.quartz.scheduler.instanceId", "AUTO" );
+        properties.setProperty( "org.quartz.threadPool.threadCount", "1" );
+        if ( STORE_JDBC.equals( strJobStore ) )
+        {
+            String strUrl = "jdbc:h2:mem:quartz" + nId + ";DB_CLOSE_DELAY=-1";
+            createSchema( strUrl );
+            properties.setProperty( "org.quartz.jobStore.class", "org.quartz.impl.jdbcjobstore.JobStoreTX" );
+            properties.setProperty( "org.quartz.jobStore.driverDelegateClass", "org.quartz.impl.jdbcjobstore.StdJDBCDelegate" );
+            properties.setProperty( "org.quartz.jobStore.useProperties", "true" );
+            properties.setProperty( "org.quartz.jobStore.dataSource", "benchmark" );
+            properties.setProperty( "org.quartz.jobStore.tablePrefix", TABLE_PREFIX );
+            properties.setProperty( "org.quartz.jobStore.isClustered", "true" );
+            properties.setProperty( "org.quartz.dataSource.benchmark.connectionProvider.class", H2ConnectionProvider.class.getName( ) );
+            properties.setProperty( "org.quartz.dataSource.benchmark.url", strUrl );
+        }
+        else
+        {
+            properties.setProperty( "org.quartz.jobStore.class", "org.quartz.simpl.RAMJobStore" );
+        }
+        Scheduler scheduler = new StdSchedulerFactory( properties ).getScheduler( );
+        scheduler.setJobFactory( new LuteceJobFactory( ) );
+        return scheduler;
+    }
+
+    /**
+     * Create a JobSchedulerService bound to the given schedulers, without running its configuration file based initialization
+     * 
+     * @param localScheduler
+     *            the local scheduler
+     * @param clusteredScheduler
+     *            the clustered scheduler, may be null
+     * @return the service
+     * @throws Exception
+     *             if the service can't be created
+     */
+    static JobSchedulerService newJobSchedulerService( Scheduler localScheduler, Scheduler clusteredScheduler ) throws Exception
+    {
+        Constructor<JobSchedulerService> constructor = JobSchedulerService.class.getDeclaredConstructor( );
+        constructor.setAccessible( true );
+        JobSchedulerService service = constructor.newInstance( );
+        setField( service, "_localScheduler", localScheduler );
+        setField( service, "_clusteredScheduler", clusteredScheduler );
+        setField( service, "_clusterEnabled", null != clusteredScheduler );
+        return service;
+    }
+
+    /**
+     * Create a JobChainService bound to the given JobSchedulerService
+     * 
+     * @param jobSchedulerService
+     *            the job scheduler service
+     * @return the service
+     * @throws Exception
+     *             if the service can't be created
+     */
+    static JobChainService newJobChainService( JobSchedulerService jobSchedulerService ) throws Exception
+    {
+        JobChainService service = new JobChainService( );
+        setField( service, "_jobSchedulerService", jobSchedulerService );
+        return service;
+    }
+
+    /**
+     * Create a QuartzJobScheduler bound to the given JobSchedulerService
+     * 
+     * @param jobSchedulerService
+     *            the job scheduler service
+     * @return the daemon scheduler
+     * @throws Exception
+     *             if the scheduler can't be created
+     */
+    static QuartzJobScheduler newQuartzJobScheduler( JobSchedulerService jobSchedulerService ) throws Exception
+    {
+        QuartzJobScheduler scheduler = new QuartzJobScheduler( );
+        setField( scheduler, "_jobSchedulerService", jobSchedulerService );
+        setField( scheduler, "_jobChainService", newJobChainService( jobSchedulerService ) );
+        return scheduler;
+    }
+
+    /**
+     * Create the plugin job store schema in an H2 database
+     * 
+     * @param strUrl
+     *            the JDBC url of the database
+     * @throws Exception
+     *             if the schema can't be created
+     */
+    static void createSchema( String strUrl ) throws Exception
+    {
+        try ( Connection connection = DriverManager.getConnection( strUrl, "sa", "" );
+                Reader reader = new InputStreamReader( BenchmarkSupport.class.getClassLoader( ).getResourceAsStream( H2_SCHEMA ), StandardCharsets.UTF_8 ) )
+        {
+            RunScript.execute( connection, reader );
+        }
+    }
+
+    /**
+     * Producer of the JobSchedulerService injected in the JobChainService of the container. The benchmarks bind their own JobSchedulerService to their
+     * schedulers, and their daemons have no dependencies : the produced service is never called.
+     */
+    static class JobSchedulerServiceProducer
+    {
+        @Produces
+        static JobSchedulerService produceJobSchedulerService( ) throws Exception
+        {
+            return newJobSchedulerService( null, null );
+        }
+    }
+
+    private static void setField( Object target, String strName, Object value ) throws Exception
+    {
+        Field field = target.getClass( ).getDeclaredField( strName );
+        field.setAccessible( true );
+        field.set( target, value );
+    }
+}
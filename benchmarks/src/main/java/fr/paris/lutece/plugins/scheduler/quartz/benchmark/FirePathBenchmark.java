@@ -0,0 +1,140 @@
+/*
+ * Copyright (c) 2002-2025, City of Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.scheduler.quartz.benchmark;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.quartz.Job;
+import org.quartz.JobBuilder;
+import org.quartz.JobDetail;
+import org.quartz.JobExecutionContext;
+import org.quartz.Scheduler;
+import org.quartz.SimpleScheduleBuilder;
+import org.quartz.TriggerBuilder;
+import org.quartz.impl.JobExecutionContextImpl;
+import org.quartz.spi.OperableTrigger;
+import org.quartz.spi.TriggerFiredBundle;
+
+import fr.paris.lutece.plugins.scheduler.quartz.Constants;
+import fr.paris.lutece.plugins.scheduler.quartz.job.DaemonEntryJobListener;
+import fr.paris.lutece.plugins.scheduler.quartz.job.DaemonJob;
+import fr.paris.lutece.plugins.scheduler.quartz.job.LuteceJobFactory;
+import jakarta.enterprise.inject.se.SeContainer;
+
+/**
+ * Per fire overhead of the plugin : job instantiation by the LuteceJobFactory, listener callbacks and DaemonJob delegation to a stub daemon.
+ */
+@State( Scope.Benchmark )
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.NANOSECONDS )
+@Warmup( iterations = 3, time = 2 )
+@Measurement( iterations = 5, time = 2 )
+@Fork( 1 )
+public class FirePathBenchmark
+{
+    private SeContainer _container;
+    private Scheduler _scheduler;
+    private LuteceJobFactory _jobFactory;
+    private DaemonEntryJobListener _listener;
+    private TriggerFiredBundle _daemonBundle;
+    private TriggerFiredBundle _nativeBundle;
+
+    @Setup( Level.Trial )
+    public void setUp( ) throws Exception
+    {
+        _container = BenchmarkSupport.startContainer( );
+        BenchmarkSupport.registerDaemons( 1, false );
+        _scheduler = BenchmarkSupport.newScheduler( BenchmarkSupport.STORE_RAM );
+        _jobFactory = new LuteceJobFactory( );
+        _listener = new DaemonEntryJobListener( );
+
+        String strDaemonId = BenchmarkSupport.DAEMON_ID_PREFIX + 0;
+        JobDetail daemonJob = JobBuilder.newJob( DaemonJob.class ).withIdentity( strDaemonId, Constants.DEFAULT_GROUP )
+                .usingJobData( Constants.DAEMON_ENTRY_ID_JOB_MAP_KEY, strDaemonId ).build( );
+        JobDetail nativeJob = JobBuilder.newJob( StubJob.class ).withIdentity( "nativeJob", Constants.DEFAULT_GROUP ).build( );
+        _daemonBundle = newBundle( daemonJob );
+        _nativeBundle = newBundle( nativeJob );
+    }
+
+    @TearDown( Level.Trial )
+    public void tearDown( ) throws Exception
+    {
+        _scheduler.shutdown( );
+        _container.close( );
+    }
+
+    @Benchmark
+    public Job newDaemonJob( ) throws Exception
+    {
+        return _jobFactory.newJob( _daemonBundle, _scheduler );
+    }
+
+    @Benchmark
+    public Job newNativeJob( ) throws Exception
+    {
+        return _jobFactory.newJob( _nativeBundle, _scheduler );
+    }
+
+    @Benchmark
+    public JobExecutionContext daemonFire( ) throws Exception
+    {
+        Job job = _jobFactory.newJob( _daemonBundle, _scheduler );
+        JobExecutionContextImpl context = new JobExecutionContextImpl( _scheduler, _daemonBundle, job );
+        _listener.jobToBeExecuted( context );
+        job.execute( context );
+        _listener.jobWasExecuted( context, null );
+        return context;
+    }
+
+    private static TriggerFiredBundle newBundle( JobDetail jobDetail )
+    {
+        OperableTrigger trigger = (OperableTrigger) TriggerBuilder.newTrigger( ).withIdentity( jobDetail.getKey( ).getName( ) + "_trigger" )
+                .forJob( jobDetail ).withSchedule( SimpleScheduleBuilder.repeatSecondlyForever( ) ).build( );
+        Date now = new Date( );
+        return new TriggerFiredBundle( jobDetail, trigger, null, false, now, now, null, null );
+    }
+}
@@ -0,0 +1,172 @@
+/*
+ * Copyright (c) 2002-2025, City of Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.scheduler.quartz.benchmark;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.quartz.impl.jdbcjobstore.StdJDBCConstants;
+import org.quartz.impl.jdbcjobstore.Util;
+
+/**
+ * Checks against an embedded H2 database that the queries run by the clustered job store for the trigger acquisition, the misfire scans and the fired
+ * triggers lookups use the indexes of the plugin schema instead of scanning the tables. Run during the verify phase of the benchmarks module.
+ */
+public final class IndexUsageCheck
+{
+    private static final String URL = "jdbc:h2:mem:indexcheck;DB_CLOSE_DELAY=-1";
+    private static final String SCHED_NAME = "'ClusterScheduler'";
+    private static final String TABLE_SCAN = ".tableScan";
+    private static final int ROW_COUNT = 1000;
+
+    private IndexUsageCheck( )
+    {
+    }
+
+    /**
+     * Run the check
+     * 
+     * @param args
+     *            not used
+     * @throws Exception
+     *             if a query does not use an index
+     */
+    public static void main( String [ ] args ) throws Exception
+    {
+        BenchmarkSupport.createSchema( URL );
+        Map<String, Object [ ]> mapQueries = new LinkedHashMap<>( );
+        long lNow = System.currentTimeMillis( );
+        mapQueries.put( StdJDBCConstants.SELECT_NEXT_TRIGGER_TO_ACQUIRE, new Object [ ] {
+                "WAITING", lNow, lNow - 60000L
+        } );
+        mapQueries.put( StdJDBCConstants.COUNT_MISFIRED_TRIGGERS_IN_STATE, new Object [ ] {
+                lNow, "WAITING"
+        } );
+        mapQueries.put( StdJDBCConstants.SELECT_MISFIRED_TRIGGERS_IN_STATE, new Object [ ] {
+                lNow, "WAITING"
+        } );
+        mapQueries.put( StdJDBCConstants.SELECT_INSTANCES_FIRED_TRIGGERS, new Object [ ] {
+                "node1"
+        } );
+        mapQueries.put( StdJDBCConstants.SELECT_FIRED_TRIGGERS_OF_JOB, new Object [ ] {
+                "job1", "DEFAULT"
+        } );
+
+        List<String> listFailures = new ArrayList<>( );
+        try ( Connection connection = DriverManager.getConnection( URL, "sa", "" ) )
+        {
+            populate( connection, lNow );
+            for ( Map.Entry<String, Object [ ]> query : mapQueries.entrySet( ) )
+            {
+                String strSql = Util.rtp( query.getKey( ), BenchmarkSupport.TABLE_PREFIX, SCHED_NAME );
+                String strPlan = explain( connection, strSql, query.getValue( ) );
+                System.out.println( strPlan );
+                if ( strPlan.contains( TABLE_SCAN ) )
+                {
+                    listFailures.add( strSql );
+                }
+            }
+        }
+        if ( !listFailures.isEmpty( ) )
+        {
+            throw new IllegalStateException( "Queries not using an index : " + listFailures );
+        }
+        System.out.println( "All the job store queries use an index" );
+    }
+
+    private static String explain( Connection connection, String strSql, Object [ ] params ) throws SQLException
+    {
+        try ( PreparedStatement statement = connection.prepareStatement( "EXPLAIN " + strSql ) )
+        {
+            for ( int i = 0; i < params.length; i++ )
+            {
+                statement.setObject( i + 1, params [i] );
+            }
+            try ( ResultSet rs = statement.executeQuery( ) )
+            {
+                StringBuilder sbPlan = new StringBuilder( );
+                while ( rs.next( ) )
+                {
+                    sbPlan.append( rs.getString( 1 ) ).append( '\n' );
+                }
+                return sbPlan.toString( );
+            }
+        }
+    }
+
+    /**
+     * Fill the tables so that the optimizer works with realistic statistics
+     */
+    private static void populate( Connection connection, long lNow ) throws SQLException
+    {
+        try ( PreparedStatement job = connection.prepareStatement( "INSERT INTO qrtz_JOB_DETAILS VALUES (" + SCHED_NAME + ",?,'DEFAULT',NULL,'Job',FALSE,TRUE,FALSE,FALSE,NULL)" );
+                PreparedStatement trigger = connection.prepareStatement( "INSERT INTO qrtz_TRIGGERS VALUES (" + SCHED_NAME
+                        + ",?,'DEFAULT',?,'DEFAULT',NULL,?,NULL,5,?,'SIMPLE',0,NULL,NULL,0,NULL)" );
+                PreparedStatement fired = connection.prepareStatement( "INSERT INTO qrtz_FIRED_TRIGGERS VALUES (" + SCHED_NAME
+                        + ",?,?,'DEFAULT',?,0,0,5,'EXECUTING',?,'DEFAULT',TRUE,FALSE)" ) )
+        {
+            for ( int i = 0; i < ROW_COUNT; i++ )
+            {
+                String strJob = "job" + i;
+                job.setString( 1, strJob );
+                job.executeUpdate( );
+                trigger.setString( 1, strJob + "_trigger" );
+                trigger.setString( 2, strJob );
+                trigger.setLong( 3, lNow + i * 1000L );
+                trigger.setString( 4, i % 10 == 0 ? "ACQUIRED" : "WAITING" );
+                trigger.executeUpdate( );
+                if ( i % 20 == 0 )
+                {
+                    fired.setString( 1, "entry" + i );
+                    fired.setString( 2, strJob + "_trigger" );
+                    fired.setString( 3, "node" + ( i % 4 ) );
+                    fired.setString( 4, strJob );
+                    fired.executeUpdate( );
+                }
+            }
+        }
+        try ( Statement statement = connection.createStatement( ) )
+        {
+            statement.execute( "ANALYZE" );
+        }
+    }
+}
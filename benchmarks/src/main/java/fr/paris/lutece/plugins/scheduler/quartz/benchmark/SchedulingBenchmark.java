@@ -0,0 +1,168 @@
+/*
+ * Copyright (c) 2002-2025, City of Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.scheduler.quartz.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.quartz.JobBuilder;
+import org.quartz.JobDetail;
+import org.quartz.Scheduler;
+import org.quartz.SimpleScheduleBuilder;
+import org.quartz.Trigger;
+import org.quartz.TriggerBuilder;
+
+import fr.paris.lutece.plugins.scheduler.quartz.Constants;
+import fr.paris.lutece.plugins.scheduler.quartz.QuartzJobScheduler;
+import fr.paris.lutece.plugins.scheduler.quartz.job.DaemonJob;
+import fr.paris.lutece.plugins.scheduler.quartz.service.JobSchedulerService;
+import fr.paris.lutece.portal.service.daemon.DaemonEntry;
+import jakarta.enterprise.inject.se.SeContainer;
+
+/**
+ * Cost of scheduling all the daemons at startup, through QuartzJobScheduler.schedule and JobSchedulerService.scheduleJob, one by one or in batch. With the JDBC store the daemons
+ * are routed to the clustered scheduler, backed by an embedded H2 database.
+ */
+@State( Scope.Benchmark )
+@BenchmarkMode( Mode.SingleShotTime )
+@OutputTimeUnit( TimeUnit.MILLISECONDS )
+@Warmup( iterations = 3 )
+@Measurement( iterations = 10 )
+@Fork( 1 )
+public class SchedulingBenchmark
+{
+    @Param( {
+            "10", "100", "1000", "10000"
+    } )
+    private int daemonCount;
+
+    @Param( {
+            BenchmarkSupport.STORE_RAM, BenchmarkSupport.STORE_JDBC
+    } )
+    private String jobStore;
+
+    private SeContainer _container;
+    private DaemonEntry [ ] _entries;
+    private JobDetail [ ] _jobDetails;
+    private Trigger [ ] _triggers;
+    private Scheduler _localScheduler;
+    private Scheduler _clusteredScheduler;
+    private JobSchedulerService _jobSchedulerService;
+    private QuartzJobScheduler _quartzJobScheduler;
+
+    @Setup( Level.Trial )
+    public void setUpTrial( ) throws Exception
+    {
+        boolean bClustered = BenchmarkSupport.STORE_JDBC.equals( jobStore );
+        _container = BenchmarkSupport.startContainer( );
+        _entries = BenchmarkSupport.registerDaemons( daemonCount, bClustered );
+        _jobDetails = new JobDetail [ daemonCount];
+        _triggers = new Trigger [ daemonCount];
+        for ( int i = 0; i < daemonCount; i++ )
+        {
+            String strId = _entries [i].getId( );
+            _jobDetails [i] = JobBuilder.newJob( DaemonJob.class ).withIdentity( strId, Constants.DEFAULT_GROUP )
+                    .usingJobData( Constants.DAEMON_ENTRY_ID_JOB_MAP_KEY, strId )
+                    .usingJobData( Constants.DAEMON_CLUSTERED_JOB_MAP_KEY, Boolean.toString( bClustered ) ).build( );
+            _triggers [i] = TriggerBuilder.newTrigger( ).withIdentity( strId + "_trigger", Constants.DEFAULT_GROUP )
+                    .withSchedule( SimpleScheduleBuilder.repeatHourlyForever( ) ).build( );
+        }
+    }
+
+    @Setup( Level.Invocation )
+    public void setUpInvocation( ) throws Exception
+    {
+        _localScheduler = BenchmarkSupport.newScheduler( BenchmarkSupport.STORE_RAM );
+        _clusteredScheduler = BenchmarkSupport.STORE_JDBC.equals( jobStore ) ? BenchmarkSupport.newScheduler( BenchmarkSupport.STORE_JDBC ) : null;
+        _jobSchedulerService = BenchmarkSupport.newJobSchedulerService( _localScheduler, _clusteredScheduler );
+        _quartzJobScheduler = BenchmarkSupport.newQuartzJobScheduler( _jobSchedulerService );
+    }
+
+    @TearDown( Level.Invocation )
+    public void tearDownInvocation( ) throws Exception
+    {
+        _localScheduler.shutdown( );
+        if ( null != _clusteredScheduler )
+        {
+            _clusteredScheduler.shutdown( );
+        }
+    }
+
+    @TearDown( Level.Trial )
+    public void tearDownTrial( )
+    {
+        _container.close( );
+    }
+
+    @Benchmark
+    public void quartzJobSchedulerSchedule( )
+    {
+        for ( DaemonEntry entry : _entries )
+        {
+            _quartzJobScheduler.schedule( entry, 0, TimeUnit.SECONDS );
+        }
+    }
+
+    @Benchmark
+    public void jobSchedulerServiceScheduleJob( )
+    {
+        for ( int i = 0; i < daemonCount; i++ )
+        {
+            _jobSchedulerService.scheduleJob( _jobDetails [i], _triggers [i] );
+        }
+    }
+
+    @Benchmark
+    public void jobSchedulerServiceScheduleJobsInBatch( )
+    {
+        _jobSchedulerService.beginBatch( );
+        for ( int i = 0; i < daemonCount; i++ )
+        {
+            _jobSchedulerService.scheduleJob( _jobDetails [i], _triggers [i] );
+        }
+        _jobSchedulerService.flushBatch( );
+    }
+}
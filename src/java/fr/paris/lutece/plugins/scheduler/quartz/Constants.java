@@ -43,5 +43,11 @@ public class Constants
     public static final String DEFAULT_GROUP = "DEFAULT";
     public static final String DAEMON_CLUSTERED_JOB_MAP_KEY = "DAEMON_CLUSTERED";
     public static final String DAEMON_ENTRY_ID_JOB_MAP_KEY = "DAEMON_ENTRY_ID";
+    public static final String DAEMON_PARTITIONED_JOB_MAP_KEY = "DAEMON_PARTITIONED";
+    public static final String DAEMON_LANE_JOB_MAP_KEY = "DAEMON_LANE";
+    public static final String DAEMON_TIMEOUT_JOB_MAP_KEY = "DAEMON_TIMEOUT";
+    public static final String DAEMON_EXCLUSIVE_JOB_MAP_KEY = "DAEMON_EXCLUSIVE";
     public static final String PLUGIN_NAME = "quartz-scheduler";
+    // Set in the execution context by the trigger listeners vetoing a fire, checked by the lease listener registered after them
+    public static final String FIRE_VETOED_CONTEXT_KEY = "FIRE_VETOED";
 }
@@ -0,0 +1,229 @@
+/*
+ * Copyright (c) 2002-2025, City of Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.scheduler.quartz;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import fr.paris.lutece.portal.service.util.AppPropertiesService;
+
+/**
+ * Scheduling rules of the daemons read from the plugin properties : the scheduler a daemon is routed to and the start time of the interval daemons. Shared
+ * by the {@link QuartzJobScheduler} and the {@link fr.paris.lutece.plugins.scheduler.quartz.simulation.ScheduleSimulator} so that the simulation replays
+ * the actual schedule.
+ */
+public final class DaemonProperties
+{
+    public static final String MISFIRE_POLICY_FIRE_NOW = "fireNow";
+    public static final String MISFIRE_POLICY_SKIP = "skip";
+    public static final String MISFIRE_POLICY_RESCHEDULE_NEXT = "rescheduleNext";
+    private static final String PROPERTY_DAEMON_PREFIX = "quartzscheduler.daemon.";
+    public static final String PROPERTY_CLUSTER_ENABLE = "quartzscheduler.cluster.enable";
+    private static final String PROPERTY_LANES = "quartzscheduler.lanes";
+    private static final String PROPERTY_LANE_PREFIX = "quartzscheduler.lane.";
+    private static final String PROPERTY_LANE_THREAD_COUNT_SUFFIX = ".threadCount";
+    private static final String CLUSTER_DIS_CONCURRENCY_SUFFIX = ".disallowedClusterConcurrentExecution";
+    private static final String PARTITIONED_SUFFIX = ".partitioned";
+    private static final String EXCLUSIVE_SUFFIX = ".exclusive";
+    private static final String LANE_SUFFIX = ".lane";
+    private static final String MISFIRE_POLICY_SUFFIX = ".misfirePolicy";
+    private static final String PROPERTY_STAGGER_MODE = "quartzscheduler.stagger.mode";
+    private static final String PROPERTY_STAGGER_WINDOW = "quartzscheduler.stagger.window";
+    private static final String STAGGER_MODE_HASH = "hash";
+    private static final String STAGGER_MODE_RANDOM = "random";
+
+    private DaemonProperties( )
+    {
+    }
+
+    /**
+     * Tell whether a daemon is partitioned : it runs on the local scheduler of the node it is assigned to
+     * 
+     * @param strDaemonId
+     *            the daemon id
+     * @return true if the daemon is partitioned
+     */
+    public static boolean isPartitioned( String strDaemonId )
+    {
+        return AppPropertiesService.getPropertyBoolean( PROPERTY_DAEMON_PREFIX + strDaemonId + PARTITIONED_SUFFIX, false );
+    }
+
+    /**
+     * Tell whether a daemon is exclusive : it runs on the local scheduler of each node, a lease granting each fire to a single node
+     * 
+     * @param strDaemonId
+     *            the daemon id
+     * @return true if the daemon is exclusive
+     */
+    public static boolean isExclusive( String strDaemonId )
+    {
+        return AppPropertiesService.getPropertyBoolean( PROPERTY_DAEMON_PREFIX + strDaemonId + EXCLUSIVE_SUFFIX, false );
+    }
+
+    /**
+     * Tell whether a daemon runs on the clustered scheduler when the cluster is enabled. The partitioned and exclusive daemons run on the local
+     * schedulers, even if their cluster concurrent execution is disallowed.
+     * 
+     * @param strDaemonId
+     *            the daemon id
+     * @return true if the daemon is clustered
+     */
+    public static boolean isClustered( String strDaemonId )
+    {
+        return AppPropertiesService.getPropertyBoolean( PROPERTY_DAEMON_PREFIX + strDaemonId + CLUSTER_DIS_CONCURRENCY_SUFFIX, false )
+                && !isPartitioned( strDaemonId ) && !isExclusive( strDaemonId );
+    }
+
+    /**
+     * Get the lane of a daemon
+     * 
+     * @param strDaemonId
+     *            the daemon id
+     * @return the lane name, or null if the daemon runs on the default local scheduler
+     */
+    public static String getLane( String strDaemonId )
+    {
+        String strLane = AppPropertiesService.getProperty( PROPERTY_DAEMON_PREFIX + strDaemonId + LANE_SUFFIX );
+        return ( null == strLane || strLane.trim( ).isEmpty( ) ) ? null : strLane.trim( );
+    }
+
+    /**
+     * Get the misfire policy of a daemon
+     * 
+     * @param strDaemonId
+     *            the daemon id
+     * @return the misfire policy, or null for the default policy
+     */
+    public static String getMisfirePolicy( String strDaemonId )
+    {
+        return AppPropertiesService.getProperty( PROPERTY_DAEMON_PREFIX + strDaemonId + MISFIRE_POLICY_SUFFIX );
+    }
+
+    /**
+     * Tell whether the misfired fires of a daemon are replayed once right away, or skipped until its next fire time. Without policy, the Quartz smart
+     * policy applies : a cron daemon fires once now, an interval daemon, repeating forever, waits for its next fire time.
+     * 
+     * @param strDaemonId
+     *            the daemon id
+     * @param bCron
+     *            true for a cron daemon, false for an interval daemon
+     * @return true if a misfired fire is replayed
+     */
+    public static boolean isMisfireReplayed( String strDaemonId, boolean bCron )
+    {
+        String strMisfirePolicy = getMisfirePolicy( strDaemonId );
+        if ( MISFIRE_POLICY_FIRE_NOW.equals( strMisfirePolicy ) )
+        {
+            return true;
+        }
+        if ( MISFIRE_POLICY_SKIP.equals( strMisfirePolicy ) || MISFIRE_POLICY_RESCHEDULE_NEXT.equals( strMisfirePolicy ) )
+        {
+            return false;
+        }
+        return bCron;
+    }
+
+    /**
+     * Get the thread count of each lane declared in the plugin properties
+     * 
+     * @return the thread counts by lane name, in the declaration order
+     */
+    public static Map<String, Integer> getLaneThreadCounts( )
+    {
+        Map<String, Integer> mapThreadCounts = new LinkedHashMap<>( );
+        for ( String strLane : AppPropertiesService.getProperty( PROPERTY_LANES, "" ).split( "," ) )
+        {
+            String strLaneName = strLane.trim( );
+            if ( !strLaneName.isEmpty( ) )
+            {
+                mapThreadCounts.putIfAbsent( strLaneName,
+                        AppPropertiesService.getPropertyInt( PROPERTY_LANE_PREFIX + strLaneName + PROPERTY_LANE_THREAD_COUNT_SUFFIX, 1 ) );
+            }
+        }
+        return mapThreadCounts;
+    }
+
+    /**
+     * Get the start time of an interval daemon, the stagger offset being added to the earliest start time. The exclusive daemons fire at the multiples of
+     * their interval shifted by their stagger offset, the same on all the nodes, so that they compete for the same fires : their first fire is the first
+     * of these times at or after the earliest start time, at most one interval later. Shifting the first fire of an interval trigger also shifts all its
+     * following fires.
+     * 
+     * @param strDaemonId
+     *            the daemon id
+     * @param lInterval
+     *            the daemon interval in seconds
+     * @param bExclusive
+     *            true if the daemon is exclusive
+     * @param lStartTime
+     *            the earliest start time, after the initial delay
+     * @return the time of the first fire
+     */
+    public static long getIntervalStartTime( String strDaemonId, long lInterval, boolean bExclusive, long lStartTime )
+    {
+        long lIntervalMillis = TimeUnit.SECONDS.toMillis( lInterval );
+        long lStagger = getStagger( strDaemonId, lIntervalMillis, bExclusive );
+        if ( bExclusive && lIntervalMillis > 0 )
+        {
+            return Math.floorDiv( lStartTime - lStagger + lIntervalMillis - 1, lIntervalMillis ) * lIntervalMillis + lStagger;
+        }
+        return lStartTime + lStagger;
+    }
+
+    /**
+     * Get the offset in milliseconds added to the start time of an interval daemon, so that the daemons started together do not all fire in the same
+     * second. The offset is taken within the stagger window, bounded by the daemon interval, either from the daemon id (the same offset on each start and
+     * on each node) or randomly. The exclusive daemons always use the offset from their id, the same on all the nodes.
+     */
+    private static long getStagger( String strDaemonId, long lIntervalMillis, boolean bExclusive )
+    {
+        String strMode = AppPropertiesService.getProperty( PROPERTY_STAGGER_MODE, "" );
+        long lWindow = Math.min( AppPropertiesService.getPropertyLong( PROPERTY_STAGGER_WINDOW, 0 ), lIntervalMillis );
+        if ( lWindow <= 0 )
+        {
+            return 0;
+        }
+        if ( STAGGER_MODE_HASH.equals( strMode ) || ( bExclusive && STAGGER_MODE_RANDOM.equals( strMode ) ) )
+        {
+            return Math.floorMod( strDaemonId.hashCode( ) * 0x9E3779B97F4A7C15L, lWindow );
+        }
+        if ( STAGGER_MODE_RANDOM.equals( strMode ) )
+        {
+            return ThreadLocalRandom.current( ).nextLong( lWindow );
+        }
+        return 0;
+    }
+}
@@ -33,12 +33,14 @@
  */
 package fr.paris.lutece.plugins.scheduler.quartz;
 
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
 import java.util.concurrent.TimeUnit;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.quartz.CronScheduleBuilder;
-import org.quartz.CronTrigger;
 import org.quartz.JobKey;
 import org.quartz.SimpleScheduleBuilder;
 import org.quartz.Trigger;
@@ -46,7 +48,9 @@ import org.quartz.TriggerBuilder;
 import org.quartz.impl.JobDetailImpl;
 
 import fr.paris.lutece.plugins.scheduler.quartz.job.DaemonJob;
+import fr.paris.lutece.plugins.scheduler.quartz.service.JobChainService;
 import fr.paris.lutece.plugins.scheduler.quartz.service.JobSchedulerService;
+import fr.paris.lutece.portal.service.daemon.AppDaemonService;
 import fr.paris.lutece.portal.service.daemon.DaemonEntry;
 import fr.paris.lutece.portal.service.daemon.IDaemonScheduler;
 import fr.paris.lutece.portal.service.util.AppPropertiesService;
@@ -65,45 +69,177 @@ public class QuartzJobScheduler implements IDaemonScheduler
 {
     private static final String TRIGGER_NAME_SUFFIX = "_trigger";
     private static final String CLUSTER_DIS_CONCURRENCY_PREFIX = "quartzscheduler.daemon.";
-    private static final String CLUSTER_DIS_CONCURRENCY_SUFFIX = ".disallowedClusterConcurrentExecution";
+    private static final String TIMEOUT_SUFFIX = ".timeout";
+    private static final String TRIGGER_AFTER_SUFFIX = ".triggerAfter";
     private static final String CRON_VALIDATION_TRIGGER_NAME = "dummy_for_validation";
 
     private Logger _logger = LogManager.getLogger( "lutece.scheduler.quartz" );
     @Inject
     private JobSchedulerService _jobSchedulerService;
+    @Inject
+    private JobChainService _jobChainService;
 
+    /**
+     * Request a run of a daemon after a delay. The requests made while a requested run of the daemon is pending are merged into it, the pending run being
+     * brought forward if the request is due earlier. A request made during a requested run runs the daemon again once the run has completed.
+     * 
+     * @return true if a run was scheduled, false if the request was merged into a pending run
+     */
     @Override
     public boolean enqueue( DaemonEntry entry, long nDelay, TimeUnit unit )
     {
-        _jobSchedulerService.executeJob( new JobKey( entry.getId( ), Constants.DEFAULT_GROUP ) );
-        return false;
+        return _jobSchedulerService.enqueueJob( new JobKey( entry.getId( ), Constants.DEFAULT_GROUP ), unit.toMillis( nDelay ) );
     }
 
     @Override
     public void schedule( DaemonEntry entry, long nInitialDelay, TimeUnit unit )
+    {
+        JobDetailImpl jdi = createJobDetail( entry );
+        _jobChainService.register( jdi.getKey( ), getUpstreamJobs( entry ) );
+        boolean bExclusive = Boolean.parseBoolean( (String) jdi.getJobDataMap( ).get( Constants.DAEMON_EXCLUSIVE_JOB_MAP_KEY ) );
+        _jobSchedulerService.scheduleJob( jdi, createTrigger( entry, bExclusive, System.currentTimeMillis( ) + unit.toMillis( Math.max( nInitialDelay, 0 ) ) ) );
+    }
+
+    /**
+     * Reload the configuration without restarting the webapp : the configuration files of the schedulers (thread pools, job store) and the daemon
+     * properties (routing, lanes, misfire policies, timeouts, dependencies). Only the daemons whose definition has changed are rescheduled, with their
+     * requested runs. The other daemons go on with their schedule, as do the rescheduled daemons whose cron expression or interval is unchanged : they
+     * keep their next fire time.
+     */
+    public void reload( )
+    {
+        AppPropertiesService.reloadAll( );
+        _jobSchedulerService.reloadSchedulers( );
+        for ( DaemonEntry entry : AppDaemonService.getDaemonEntries( ) )
+        {
+            JobDetailImpl jdi = createJobDetail( entry );
+            if ( _jobSchedulerService.isScheduled( jdi.getKey( ) ) )
+            {
+                _jobChainService.register( jdi.getKey( ), getUpstreamJobs( entry ) );
+                boolean bExclusive = Boolean.parseBoolean( (String) jdi.getJobDataMap( ).get( Constants.DAEMON_EXCLUSIVE_JOB_MAP_KEY ) );
+                _jobSchedulerService.rescheduleJob( jdi, createTrigger( entry, bExclusive, System.currentTimeMillis( ) ) );
+            }
+        }
+        _logger.info( "Quartz scheduler configuration reloaded" );
+    }
+
+    /**
+     * Build the job of a daemon from its properties
+     */
+    private JobDetailImpl createJobDetail( DaemonEntry entry )
     {
         JobDetailImpl jdi = new JobDetailImpl( );
         jdi.setJobClass( DaemonJob.class );
         jdi.getJobDataMap( ).put( Constants.DAEMON_ENTRY_ID_JOB_MAP_KEY, entry.getId( ) );
-        jdi.getJobDataMap( ).put( Constants.DAEMON_CLUSTERED_JOB_MAP_KEY,
-                AppPropertiesService.getProperty( CLUSTER_DIS_CONCURRENCY_PREFIX + entry.getId( ) + CLUSTER_DIS_CONCURRENCY_SUFFIX ) );
+        jdi.getJobDataMap( ).put( Constants.DAEMON_CLUSTERED_JOB_MAP_KEY, String.valueOf( DaemonProperties.isClustered( entry.getId( ) ) ) );
+        if ( DaemonProperties.isPartitioned( entry.getId( ) ) )
+        {
+            jdi.getJobDataMap( ).put( Constants.DAEMON_PARTITIONED_JOB_MAP_KEY, Boolean.TRUE.toString( ) );
+        }
+        if ( DaemonProperties.isExclusive( entry.getId( ) ) )
+        {
+            jdi.getJobDataMap( ).put( Constants.DAEMON_EXCLUSIVE_JOB_MAP_KEY, Boolean.TRUE.toString( ) );
+        }
+        String strLane = DaemonProperties.getLane( entry.getId( ) );
+        if ( null != strLane )
+        {
+            jdi.getJobDataMap( ).put( Constants.DAEMON_LANE_JOB_MAP_KEY, strLane );
+        }
+        long lTimeout = AppPropertiesService.getPropertyLong( CLUSTER_DIS_CONCURRENCY_PREFIX + entry.getId( ) + TIMEOUT_SUFFIX, 0 );
+        if ( lTimeout > 0 )
+        {
+            jdi.getJobDataMap( ).put( Constants.DAEMON_TIMEOUT_JOB_MAP_KEY, String.valueOf( lTimeout ) );
+        }
         jdi.setKey( new JobKey( entry.getId( ), Constants.DEFAULT_GROUP ) );
+        return jdi;
+    }
+
+    /**
+     * Build the trigger of a daemon from its cron expression or its interval
+     */
+    private Trigger createTrigger( DaemonEntry entry, boolean bExclusive, long lStartTime )
+    {
+        String misfirePolicy = DaemonProperties.getMisfirePolicy( entry.getId( ) );
 
         // Check cron expression
         if ( null != entry.getCron( ) && !"".equals( entry.getCron( ) ) )
         {
-            CronTrigger ct = TriggerBuilder.newTrigger( ).withIdentity( entry.getId( ) + TRIGGER_NAME_SUFFIX, Constants.DEFAULT_GROUP )
-                    .withSchedule( CronScheduleBuilder.cronSchedule( entry.getCron( ) ) )
+            // The fire times of a cron trigger are fixed by its expression : only the initial delay applies
+            return TriggerBuilder.newTrigger( ).withIdentity( entry.getId( ) + TRIGGER_NAME_SUFFIX, Constants.DEFAULT_GROUP )
+                    .withSchedule( getCronSchedule( entry, misfirePolicy ) )
+                    .startAt( new Date( lStartTime ) )
                     .build( );
-            _jobSchedulerService.scheduleJob( jdi, ct );
         }
         else
         {
-            Trigger t = TriggerBuilder.newTrigger( ).withIdentity( entry.getId( ) + TRIGGER_NAME_SUFFIX, Constants.DEFAULT_GROUP )
-                    .withSchedule(
-                            SimpleScheduleBuilder.simpleSchedule( ).withIntervalInSeconds( Math.toIntExact( entry.getInterval( ) ) ).repeatForever( ) )
+            return TriggerBuilder.newTrigger( ).withIdentity( entry.getId( ) + TRIGGER_NAME_SUFFIX, Constants.DEFAULT_GROUP )
+                    .withSchedule( getSimpleSchedule( entry, misfirePolicy ) )
+                    .startAt( new Date( DaemonProperties.getIntervalStartTime( entry.getId( ), entry.getInterval( ), bExclusive, lStartTime ) ) )
                     .build( );
-            _jobSchedulerService.scheduleJob( jdi, t );
+        }
+    }
+
+    /**
+     * Get the daemons after which a daemon is run, declared as a comma separated list of daemon ids
+     */
+    private List<JobKey> getUpstreamJobs( DaemonEntry entry )
+    {
+        List<JobKey> listUpstreamJobs = new ArrayList<>( );
+        for ( String strUpstreamId : AppPropertiesService.getProperty( CLUSTER_DIS_CONCURRENCY_PREFIX + entry.getId( ) + TRIGGER_AFTER_SUFFIX, "" ).split( "," ) )
+        {
+            if ( !strUpstreamId.trim( ).isEmpty( ) )
+            {
+                listUpstreamJobs.add( new JobKey( strUpstreamId.trim( ), Constants.DEFAULT_GROUP ) );
+            }
+        }
+        return listUpstreamJobs;
+    }
+
+    /**
+     * Build the cron schedule of a daemon with its misfire policy. Without policy, the Quartz smart policy applies (fire once now).
+     */
+    private CronScheduleBuilder getCronSchedule( DaemonEntry entry, String strMisfirePolicy )
+    {
+        CronScheduleBuilder schedule = CronScheduleBuilder.cronSchedule( entry.getCron( ) );
+        if ( DaemonProperties.MISFIRE_POLICY_FIRE_NOW.equals( strMisfirePolicy ) )
+        {
+            return schedule.withMisfireHandlingInstructionFireAndProceed( );
+        }
+        if ( DaemonProperties.MISFIRE_POLICY_SKIP.equals( strMisfirePolicy )
+                || DaemonProperties.MISFIRE_POLICY_RESCHEDULE_NEXT.equals( strMisfirePolicy ) )
+        {
+            return schedule.withMisfireHandlingInstructionDoNothing( );
+        }
+        logUnknownMisfirePolicy( entry, strMisfirePolicy );
+        return schedule;
+    }
+
+    /**
+     * Build the interval schedule of a daemon with its misfire policy. Without policy, the Quartz smart policy applies (wait for the next fire time).
+     */
+    private SimpleScheduleBuilder getSimpleSchedule( DaemonEntry entry, String strMisfirePolicy )
+    {
+        SimpleScheduleBuilder schedule = SimpleScheduleBuilder.simpleSchedule( ).withIntervalInSeconds( Math.toIntExact( entry.getInterval( ) ) )
+                .repeatForever( );
+        if ( DaemonProperties.MISFIRE_POLICY_FIRE_NOW.equals( strMisfirePolicy ) )
+        {
+            return schedule.withMisfireHandlingInstructionNowWithExistingCount( );
+        }
+        // The daemon triggers repeat forever : there is no repeat count to keep, rescheduleNext is an alias of skip
+        if ( DaemonProperties.MISFIRE_POLICY_SKIP.equals( strMisfirePolicy )
+                || DaemonProperties.MISFIRE_POLICY_RESCHEDULE_NEXT.equals( strMisfirePolicy ) )
+        {
+            return schedule.withMisfireHandlingInstructionNextWithRemainingCount( );
+        }
+        logUnknownMisfirePolicy( entry, strMisfirePolicy );
+        return schedule;
+    }
+
+    private void logUnknownMisfirePolicy( DaemonEntry entry, String strMisfirePolicy )
+    {
+        if ( null != strMisfirePolicy && !strMisfirePolicy.isEmpty( ) )
+        {
+            _logger.warn( "Unknown misfire policy '{}' for daemon {}, the default policy is used", strMisfirePolicy, entry.getId( ) );
         }
     }
 
@@ -111,6 +247,7 @@ public class QuartzJobScheduler implements IDaemonScheduler
     public void unSchedule( DaemonEntry daemonEntry )
     {
         _jobSchedulerService.unscheduleJob( daemonEntry.getId( ) );
+        _jobChainService.unregister( new JobKey( daemonEntry.getId( ), Constants.DEFAULT_GROUP ) );
     }
 
     @Override
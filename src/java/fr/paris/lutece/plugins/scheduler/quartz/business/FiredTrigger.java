@@ -0,0 +1,95 @@
+/*
+ * Copyright (c) 2002-2025, City of Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.scheduler.quartz.business;
+
+import java.util.Date;
+
+/**
+ * A job executing on a member of the clustered scheduler, as recorded in the qrtz_FIRED_TRIGGERS table
+ */
+public class FiredTrigger
+{
+    private String _strJobName;
+    private String _strJobGroup;
+    private String _strInstanceName;
+    private long _lFiredTime;
+
+    public String getJobName( )
+    {
+        return _strJobName;
+    }
+
+    public void setJobName( String strJobName )
+    {
+        _strJobName = strJobName;
+    }
+
+    public String getJobGroup( )
+    {
+        return _strJobGroup;
+    }
+
+    public void setJobGroup( String strJobGroup )
+    {
+        _strJobGroup = strJobGroup;
+    }
+
+    /**
+     * @return the instance id of the member executing the job
+     */
+    public String getInstanceName( )
+    {
+        return _strInstanceName;
+    }
+
+    public void setInstanceName( String strInstanceName )
+    {
+        _strInstanceName = strInstanceName;
+    }
+
+    public Date getFiredDate( )
+    {
+        return new Date( _lFiredTime );
+    }
+
+    public long getFiredTime( )
+    {
+        return _lFiredTime;
+    }
+
+    public void setFiredTime( long lFiredTime )
+    {
+        _lFiredTime = lFiredTime;
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright (c) 2002-2025, City of Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.scheduler.quartz.business;
+
+import fr.paris.lutece.portal.service.plugin.Plugin;
+
+/**
+ * ILeaseDAO Interface
+ */
+public interface ILeaseDAO
+{
+    /**
+     * Insert a new lease
+     * 
+     * @param lease
+     *            the lease
+     * @param plugin
+     *            the plugin
+     */
+    void insert( Lease lease, Plugin plugin );
+
+    /**
+     * Load a lease
+     * 
+     * @param strName
+     *            the lease name
+     * @param plugin
+     *            the plugin
+     * @return the lease, or null if it does not exist
+     */
+    Lease load( String strName, Plugin plugin );
+
+    /**
+     * Take a lease, provided that it is held for an older fire and has been released or has expired
+     * 
+     * @param lease
+     *            the new owner, fire time and expiration time of the lease
+     * @param lNow
+     *            the current time in epoch millis
+     * @param plugin
+     *            the plugin
+     */
+    void acquire( Lease lease, long lNow, Plugin plugin );
+
+    /**
+     * Change the expiration time of a lease, provided that it is still held by the same owner for the same fire
+     * 
+     * @param lease
+     *            the lease with its new expiration time
+     * @param plugin
+     *            the plugin
+     */
+    void updateExpiration( Lease lease, Plugin plugin );
+
+    /**
+     * Give back a lease for a fire that has not run, provided that it is still held by the same owner for the same fire : its previous fire time is
+     * restored and it is released
+     * 
+     * @param lease
+     *            the lease with its release time as expiration time
+     * @param lPreviousFireTime
+     *            the fire time of the lease before it was taken
+     * @param plugin
+     *            the plugin
+     */
+    void restore( Lease lease, long lPreviousFireTime, Plugin plugin );
+}
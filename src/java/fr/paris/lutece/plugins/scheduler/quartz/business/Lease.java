@@ -0,0 +1,94 @@
+/*
+ * Copyright (c) 2002-2025, City of Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.scheduler.quartz.business;
+
+/**
+ * Lease giving a node the exclusive execution of a fire of a daemon, until it is released or expires
+ */
+public class Lease
+{
+    private String _strName;
+    private String _strOwner;
+    private long _lFireTime;
+    private long _lExpirationTime;
+
+    public String getName( )
+    {
+        return _strName;
+    }
+
+    public void setName( String strName )
+    {
+        _strName = strName;
+    }
+
+    /**
+     * @return the id of the node holding the lease
+     */
+    public String getOwner( )
+    {
+        return _strOwner;
+    }
+
+    public void setOwner( String strOwner )
+    {
+        _strOwner = strOwner;
+    }
+
+    /**
+     * @return the scheduled fire time of the run holding the lease, in epoch millis
+     */
+    public long getFireTime( )
+    {
+        return _lFireTime;
+    }
+
+    public void setFireTime( long lFireTime )
+    {
+        _lFireTime = lFireTime;
+    }
+
+    /**
+     * @return the time the lease expires if it is not renewed, in epoch millis
+     */
+    public long getExpirationTime( )
+    {
+        return _lExpirationTime;
+    }
+
+    public void setExpirationTime( long lExpirationTime )
+    {
+        _lExpirationTime = lExpirationTime;
+    }
+}
@@ -0,0 +1,141 @@
+/*
+ * Copyright (c) 2002-2025, City of Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.scheduler.quartz.business;
+
+import fr.paris.lutece.portal.service.plugin.Plugin;
+import fr.paris.lutece.util.sql.DAOUtil;
+import jakarta.enterprise.context.ApplicationScoped;
+
+/**
+ * This class provides Data Access methods for the quartzscheduler_lease table
+ */
+@ApplicationScoped
+public final class LeaseDAO implements ILeaseDAO
+{
+    private static final String SQL_QUERY_INSERT = "INSERT INTO quartzscheduler_lease ( LEASE_NAME, OWNER, FIRE_TIME, EXPIRATION_TIME ) VALUES ( ?, ?, ?, ? )";
+    private static final String SQL_QUERY_SELECT = "SELECT OWNER, FIRE_TIME, EXPIRATION_TIME FROM quartzscheduler_lease WHERE LEASE_NAME = ?";
+    private static final String SQL_QUERY_ACQUIRE = "UPDATE quartzscheduler_lease SET OWNER = ?, FIRE_TIME = ?, EXPIRATION_TIME = ? WHERE LEASE_NAME = ? AND FIRE_TIME < ? AND EXPIRATION_TIME < ?";
+    private static final String SQL_QUERY_UPDATE_EXPIRATION = "UPDATE quartzscheduler_lease SET EXPIRATION_TIME = ? WHERE LEASE_NAME = ? AND OWNER = ? AND FIRE_TIME = ?";
+    private static final String SQL_QUERY_RESTORE = "UPDATE quartzscheduler_lease SET FIRE_TIME = ?, EXPIRATION_TIME = ? WHERE LEASE_NAME = ? AND OWNER = ? AND FIRE_TIME = ?";
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public void insert( Lease lease, Plugin plugin )
+    {
+        try ( DAOUtil daoUtil = new DAOUtil( SQL_QUERY_INSERT, plugin ) )
+        {
+            daoUtil.setString( 1, lease.getName( ) );
+            daoUtil.setString( 2, lease.getOwner( ) );
+            daoUtil.setLong( 3, lease.getFireTime( ) );
+            daoUtil.setLong( 4, lease.getExpirationTime( ) );
+            daoUtil.executeUpdate( );
+        }
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public Lease load( String strName, Plugin plugin )
+    {
+        Lease lease = null;
+        try ( DAOUtil daoUtil = new DAOUtil( SQL_QUERY_SELECT, plugin ) )
+        {
+            daoUtil.setString( 1, strName );
+            daoUtil.executeQuery( );
+            if ( daoUtil.next( ) )
+            {
+                lease = new Lease( );
+                lease.setName( strName );
+                lease.setOwner( daoUtil.getString( 1 ) );
+                lease.setFireTime( daoUtil.getLong( 2 ) );
+                lease.setExpirationTime( daoUtil.getLong( 3 ) );
+            }
+        }
+        return lease;
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public void acquire( Lease lease, long lNow, Plugin plugin )
+    {
+        try ( DAOUtil daoUtil = new DAOUtil( SQL_QUERY_ACQUIRE, plugin ) )
+        {
+            daoUtil.setString( 1, lease.getOwner( ) );
+            daoUtil.setLong( 2, lease.getFireTime( ) );
+            daoUtil.setLong( 3, lease.getExpirationTime( ) );
+            daoUtil.setString( 4, lease.getName( ) );
+            daoUtil.setLong( 5, lease.getFireTime( ) );
+            daoUtil.setLong( 6, lNow );
+            daoUtil.executeUpdate( );
+        }
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public void updateExpiration( Lease lease, Plugin plugin )
+    {
+        try ( DAOUtil daoUtil = new DAOUtil( SQL_QUERY_UPDATE_EXPIRATION, plugin ) )
+        {
+            daoUtil.setLong( 1, lease.getExpirationTime( ) );
+            daoUtil.setString( 2, lease.getName( ) );
+            daoUtil.setString( 3, lease.getOwner( ) );
+            daoUtil.setLong( 4, lease.getFireTime( ) );
+            daoUtil.executeUpdate( );
+        }
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public void restore( Lease lease, long lPreviousFireTime, Plugin plugin )
+    {
+        try ( DAOUtil daoUtil = new DAOUtil( SQL_QUERY_RESTORE, plugin ) )
+        {
+            daoUtil.setLong( 1, lPreviousFireTime );
+            daoUtil.setLong( 2, lease.getExpirationTime( ) );
+            daoUtil.setString( 3, lease.getName( ) );
+            daoUtil.setString( 4, lease.getOwner( ) );
+            daoUtil.setLong( 5, lease.getFireTime( ) );
+            daoUtil.executeUpdate( );
+        }
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright (c) 2002-2025, City of Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.scheduler.quartz.business;
+
+import fr.paris.lutece.plugins.scheduler.quartz.Constants;
+import fr.paris.lutece.portal.service.plugin.Plugin;
+import fr.paris.lutece.portal.service.plugin.PluginService;
+import jakarta.enterprise.inject.spi.CDI;
+
+/**
+ * This class provides instances management methods for the leases of the exclusive daemons
+ */
+public final class LeaseHome
+{
+    // Static variable pointed at the DAO instance
+    private static ILeaseDAO _dao = CDI.current( ).select( ILeaseDAO.class ).get( );
+    private static Plugin _plugin = PluginService.getPlugin( Constants.PLUGIN_NAME );
+
+    /**
+     * Private constructor - this class need not be instantiated
+     */
+    private LeaseHome( )
+    {
+    }
+
+    /**
+     * Create a lease
+     * 
+     * @param lease
+     *            the lease
+     */
+    public static void create( Lease lease )
+    {
+        _dao.insert( lease, _plugin );
+    }
+
+    /**
+     * Find a lease
+     * 
+     * @param strName
+     *            the lease name
+     * @return the lease, or null if it does not exist
+     */
+    public static Lease findByName( String strName )
+    {
+        return _dao.load( strName, _plugin );
+    }
+
+    /**
+     * Take a lease, provided that it is held for an older fire and has been released or has expired
+     * 
+     * @param lease
+     *            the new owner, fire time and expiration time of the lease
+     * @param lNow
+     *            the current time in epoch millis
+     */
+    public static void acquire( Lease lease, long lNow )
+    {
+        _dao.acquire( lease, lNow, _plugin );
+    }
+
+    /**
+     * Change the expiration time of a lease still held by the same owner for the same fire
+     * 
+     * @param lease
+     *            the lease with its new expiration time
+     */
+    public static void updateExpiration( Lease lease )
+    {
+        _dao.updateExpiration( lease, _plugin );
+    }
+
+    /**
+     * Give back a lease still held by the same owner for a fire that has not run, restoring its previous fire time
+     * 
+     * @param lease
+     *            the lease with its release time as expiration time
+     * @param lPreviousFireTime
+     *            the fire time of the lease before it was taken
+     */
+    public static void restore( Lease lease, long lPreviousFireTime )
+    {
+        _dao.restore( lease, lPreviousFireTime, _plugin );
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright (c) 2002-2025, City of Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.scheduler.quartz.business;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import fr.paris.lutece.portal.service.plugin.Plugin;
+import fr.paris.lutece.util.sql.DAOUtil;
+import jakarta.enterprise.context.ApplicationScoped;
+
+/**
+ * This class provides Data Access methods for the qrtz_SCHEDULER_STATE table
+ */
+@ApplicationScoped
+public final class SchedulerStateDAO implements ISchedulerStateDAO
+{
+    // An instance is considered as failed by Quartz when it missed its check-in by more than this grace time
+    private static final long CHECKIN_GRACE_TIME = 7500L;
+    private static final String SQL_QUERY_SELECT_LIVE_INSTANCES = "SELECT INSTANCE_NAME FROM {0}SCHEDULER_STATE WHERE SCHED_NAME = ? AND LAST_CHECKIN_TIME + CHECKIN_INTERVAL + ? >= ? ORDER BY INSTANCE_NAME";
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public List<String> selectLiveInstances( String strTablePrefix, String strSchedulerName, long lNow, Plugin plugin )
+    {
+        List<String> listInstances = new ArrayList<>( );
+        try ( DAOUtil daoUtil = new DAOUtil( SQL_QUERY_SELECT_LIVE_INSTANCES.replace( "{0}", strTablePrefix ), plugin ) )
+        {
+            daoUtil.setString( 1, strSchedulerName );
+            daoUtil.setLong( 2, CHECKIN_GRACE_TIME );
+            daoUtil.setLong( 3, lNow );
+            daoUtil.executeQuery( );
+            while ( daoUtil.next( ) )
+            {
+                listInstances.add( daoUtil.getString( 1 ) );
+            }
+        }
+        return listInstances;
+    }
+}
@@ -38,17 +38,30 @@ import java.util.Date;
 import org.quartz.JobExecutionContext;
 import org.quartz.JobExecutionException;
 import org.quartz.JobListener;
+import org.quartz.SchedulerException;
 
 import fr.paris.lutece.plugins.scheduler.quartz.Constants;
+import fr.paris.lutece.plugins.scheduler.quartz.metrics.ExecutionHistory;
 import fr.paris.lutece.plugins.scheduler.quartz.service.DaemonEntryJobService;
+import fr.paris.lutece.plugins.scheduler.quartz.service.ExecutionHistoryService;
+import fr.paris.lutece.plugins.scheduler.quartz.service.JobChainService;
+import fr.paris.lutece.plugins.scheduler.quartz.service.JobMetricsService;
+import fr.paris.lutece.plugins.scheduler.quartz.service.JobWatchdogService;
+import fr.paris.lutece.plugins.scheduler.quartz.service.LeaseService;
 import fr.paris.lutece.portal.service.daemon.AppDaemonService;
 import fr.paris.lutece.portal.service.daemon.DaemonEntry;
 import jakarta.enterprise.inject.spi.CDI;
 
 public class DaemonEntryJobListener implements JobListener
 {
+    private static final String TIMEOUT_LOGS_FORMAT = "Run interrupted after its timeout of %s ms";
 
     private DaemonEntryJobService _daemonEntryJobService;
+    private ExecutionHistoryService _executionHistoryService;
+    private JobChainService _jobChainService;
+    private JobMetricsService _jobMetricsService;
+    private JobWatchdogService _jobWatchdogService;
+    private LeaseService _leaseService;
 
     @Override
     public String getName( )
@@ -59,6 +72,9 @@ public class DaemonEntryJobListener implements JobListener
     @Override
     public void jobToBeExecuted( JobExecutionContext context )
     {
+        getJobMetricsService( ).recordFire( context.getJobDetail( ).getKey( ), getFireLag( context ) );
+        getJobWatchdogService( ).watch( context );
+        getJobChainService( ).jobStarted( context.getJobDetail( ).getKey( ) );
         String strDaemonKey = (String) context.getJobDetail( ).getJobDataMap( ).get( Constants.DAEMON_ENTRY_ID_JOB_MAP_KEY );
         DaemonEntry entry = AppDaemonService.getDaemonEntry( strDaemonKey );
         entry.setLastRunDate( new Date( ) );
@@ -69,17 +85,35 @@ public class DaemonEntryJobListener implements JobListener
     @Override
     public void jobExecutionVetoed( JobExecutionContext context )
     {
+        getJobMetricsService( ).recordVeto( context.getJobDetail( ).getKey( ) );
+        if ( Boolean.parseBoolean( (String) context.getJobDetail( ).getJobDataMap( ).get( Constants.DAEMON_EXCLUSIVE_JOB_MAP_KEY ) ) )
+        {
+            // The lease may have been taken before another listener vetoed the fire : the fire is given back to the other nodes
+            getLeaseService( ).giveBack( context.getJobDetail( ).getKey( ).getName( ) );
+        }
     }
 
     @Override
     public void jobWasExecuted( JobExecutionContext context, JobExecutionException jobException )
     {
+        boolean bTimedOut = getJobWatchdogService( ).release( context );
+        getJobMetricsService( ).recordExecution( context.getJobDetail( ).getKey( ), context.getJobRunTime( ), null != jobException );
         String strDaemonKey = (String) context.getJobDetail( ).getJobDataMap( ).get( Constants.DAEMON_ENTRY_ID_JOB_MAP_KEY );
-        if ( null != context.getResult( ) && context.getResult( ) instanceof String )
+        String strLogs = context.getResult( ) instanceof String ? (String) context.getResult( ) : null;
+        if ( bTimedOut )
+        {
+            String strTimeoutLogs = String.format( TIMEOUT_LOGS_FORMAT, context.getJobDetail( ).getJobDataMap( ).get( Constants.DAEMON_TIMEOUT_JOB_MAP_KEY ) );
+            strLogs = null == strLogs ? strTimeoutLogs : strTimeoutLogs + "\n" + strLogs;
+        }
+        getExecutionHistoryService( ).record( context.getJobDetail( ).getKey( ), context.getFireTime( ).getTime( ), context.getJobRunTime( ),
+                getStatus( jobException, bTimedOut ), getNode( context ), strLogs );
+        if ( null != strLogs )
         {
-            getDaemonEntryJobService( ).jobExecuted( new JobExecutionResult( strDaemonKey, new Date( ), (String) context.getResult( ) ) );
+            DaemonEntryJobService daemonEntryJobService = getDaemonEntryJobService( );
+            daemonEntryJobService.jobExecuted( daemonEntryJobService.createJobExecutionResult( strDaemonKey, System.currentTimeMillis( ), strLogs, bTimedOut ) );
         }
         AppDaemonService.getDaemonEntry( strDaemonKey ).setInProgress( false );
+        getJobChainService( ).jobCompleted( context.getJobDetail( ).getKey( ), null == jobException && !bTimedOut );
     }
 
     private synchronized DaemonEntryJobService getDaemonEntryJobService( )
@@ -91,4 +125,85 @@ public class DaemonEntryJobListener implements JobListener
         return _daemonEntryJobService;
     }
 
+    private synchronized ExecutionHistoryService getExecutionHistoryService( )
+    {
+        if ( null == _executionHistoryService )
+        {
+            _executionHistoryService = CDI.current( ).select( ExecutionHistoryService.class ).get( );
+        }
+        return _executionHistoryService;
+    }
+
+    private synchronized JobChainService getJobChainService( )
+    {
+        if ( null == _jobChainService )
+        {
+            _jobChainService = CDI.current( ).select( JobChainService.class ).get( );
+        }
+        return _jobChainService;
+    }
+
+    private synchronized JobWatchdogService getJobWatchdogService( )
+    {
+        if ( null == _jobWatchdogService )
+        {
+            _jobWatchdogService = CDI.current( ).select( JobWatchdogService.class ).get( );
+        }
+        return _jobWatchdogService;
+    }
+
+    private synchronized LeaseService getLeaseService( )
+    {
+        if ( null == _leaseService )
+        {
+            _leaseService = CDI.current( ).select( LeaseService.class ).get( );
+        }
+        return _leaseService;
+    }
+
+    private synchronized JobMetricsService getJobMetricsService( )
+    {
+        if ( null == _jobMetricsService )
+        {
+            _jobMetricsService = CDI.current( ).select( JobMetricsService.class ).get( );
+        }
+        return _jobMetricsService;
+    }
+
+    private static int getStatus( JobExecutionException jobException, boolean bTimedOut )
+    {
+        if ( bTimedOut )
+        {
+            return ExecutionHistory.STATUS_TIMEOUT;
+        }
+        return null == jobException ? ExecutionHistory.STATUS_SUCCESS : ExecutionHistory.STATUS_FAILURE;
+    }
+
+    /**
+     * Scheduler instance running the job : the instance id of the node for the clustered scheduler
+     */
+    private static String getNode( JobExecutionContext context )
+    {
+        try
+        {
+            return context.getScheduler( ).getSchedulerInstanceId( );
+        }
+        catch( SchedulerException e )
+        {
+            return context.getScheduler( ).toString( );
+        }
+    }
+
+    /**
+     * Delay between the scheduled fire time and the actual start of the job, including the time spent waiting for a worker thread.
+     */
+    private static long getFireLag( JobExecutionContext context )
+    {
+        if ( null == context.getScheduledFireTime( ) )
+        {
+            return 0;
+        }
+        return System.currentTimeMillis( ) - context.getScheduledFireTime( ).getTime( );
+    }
+
 }
@@ -34,7 +34,7 @@
 package fr.paris.lutece.plugins.scheduler.quartz.job;
 
 import org.quartz.DisallowConcurrentExecution;
-import org.quartz.Job;
+import org.quartz.InterruptableJob;
 import org.quartz.JobExecutionContext;
 import org.quartz.JobExecutionException;
 
@@ -42,13 +42,15 @@ import fr.paris.lutece.portal.service.daemon.Daemon;
 import fr.paris.lutece.portal.service.plugin.PluginService;
 
 /**
- * Job Class that delegates the job execution to a Lutece Daemon 
+ * Job Class that delegates the job execution to a Lutece Daemon. The run can be interrupted : the thread running the daemon is interrupted, and the
+ * daemon stops at its next blocking or interruption aware call.
  */
 @DisallowConcurrentExecution
-public class DaemonJob implements Job
+public class DaemonJob implements InterruptableJob
 {
 
     private final Daemon _daemon;
+    private Thread _runner;
 
     /**
      * Create a new DelegatingJob.
@@ -67,6 +69,10 @@ public class DaemonJob implements Job
     @Override
     public void execute( JobExecutionContext context ) throws JobExecutionException
     {
+        synchronized( this )
+        {
+            _runner = Thread.currentThread( );
+        }
         try
         {
             if ( PluginService.isPluginEnable( _daemon.getPluginName( ) ) )
@@ -83,6 +89,30 @@ public class DaemonJob implements Job
         {
             throw new JobExecutionException( "Error retrieving or executing Daemon instance", e );
         }
+        finally
+        {
+            synchronized( this )
+            {
+                _runner = null;
+                // The worker thread goes back to the pool : clear a late interruption
+                Thread.interrupted( );
+            }
+        }
+    }
+
+    /**
+     * Interrupt the thread running the daemon
+     */
+    @Override
+    public void interrupt( )
+    {
+        synchronized( this )
+        {
+            if ( null != _runner )
+            {
+                _runner.interrupt( );
+            }
+        }
     }
 
 }
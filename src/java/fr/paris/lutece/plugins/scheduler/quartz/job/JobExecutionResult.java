@@ -33,25 +33,98 @@
  */
 package fr.paris.lutece.plugins.scheduler.quartz.job;
 
-import java.io.Serializable;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
 import java.util.Date;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
 
 /**
- * Simple Job execution result to provide last run date and logs to the daemons dashboard
+ * Simple Job execution result to provide last run date and logs to the daemons dashboard.
+ * <p>
+ * The result is shared between the nodes through the QuartzCacheService, so it uses a compact format : the end date is kept as epoch millis and the logs as
+ * UTF-8 bytes, truncated to a maximum length and gzipped above a size threshold. The logs are only decoded when they are read. The flag of a run
+ * interrupted after its timeout is kept in the high bits of the logs format.
+ * </p>
  */
-public class JobExecutionResult implements Serializable
+public class JobExecutionResult implements Externalizable
 {
+    private static final long serialVersionUID = 1L;
+    private static final byte LOGS_NONE = 0;
+    private static final byte LOGS_PLAIN = 1;
+    private static final byte LOGS_GZIP = 2;
+    private static final byte LOGS_FORMAT_MASK = 0x0F;
+    private static final byte FLAG_TIMED_OUT = 0x10;
+    private static final String TRUNCATED_SUFFIX = "\n[...] logs truncated";
 
-    private final String _strId;
-    private final Date _dateLastRunEndDate;
-    private final String _strLastRunLogs;
+    private String _strId;
+    private long _lLastRunEndTime;
+    private byte _nLogsFormat;
+    private byte [ ] _logs;
+    private boolean _bTimedOut;
+
+    /**
+     * Constructor used by the deserialization
+     */
+    public JobExecutionResult( )
+    {
+        super( );
+    }
 
     public JobExecutionResult( String strId, Date dateLastRunEndDate, String strLastRunLogs )
+    {
+        this( strId, dateLastRunEndDate.getTime( ), strLastRunLogs, 0, -1 );
+    }
+
+    /**
+     * Constructor
+     * 
+     * @param strId
+     *            the daemon id
+     * @param lLastRunEndTime
+     *            the end of the run, in epoch millis
+     * @param strLastRunLogs
+     *            the logs of the run
+     * @param nMaxLogsLength
+     *            the maximum number of characters kept from the logs, 0 or less for no limit
+     * @param nCompressionThreshold
+     *            the size in bytes above which the logs are compressed, negative to disable the compression
+     */
+    public JobExecutionResult( String strId, long lLastRunEndTime, String strLastRunLogs, int nMaxLogsLength, int nCompressionThreshold )
+    {
+        this( strId, lLastRunEndTime, strLastRunLogs, nMaxLogsLength, nCompressionThreshold, false );
+    }
+
+    /**
+     * Constructor
+     * 
+     * @param strId
+     *            the daemon id
+     * @param lLastRunEndTime
+     *            the end of the run, in epoch millis
+     * @param strLastRunLogs
+     *            the logs of the run
+     * @param nMaxLogsLength
+     *            the maximum number of characters kept from the logs, 0 or less for no limit
+     * @param nCompressionThreshold
+     *            the size in bytes above which the logs are compressed, negative to disable the compression
+     * @param bTimedOut
+     *            true if the run was interrupted after its timeout
+     */
+    public JobExecutionResult( String strId, long lLastRunEndTime, String strLastRunLogs, int nMaxLogsLength, int nCompressionThreshold,
+            boolean bTimedOut )
     {
         super( );
         this._strId = strId;
-        this._dateLastRunEndDate = dateLastRunEndDate;
-        this._strLastRunLogs = strLastRunLogs;
+        this._lLastRunEndTime = lLastRunEndTime;
+        this._bTimedOut = bTimedOut;
+        encodeLogs( truncate( strLastRunLogs, nMaxLogsLength ), nCompressionThreshold );
     }
 
     public String getId( )
@@ -61,12 +134,118 @@ public class JobExecutionResult implements Serializable
 
     public Date getLastRunEndDate( )
     {
-        return _dateLastRunEndDate;
+        return new Date( _lLastRunEndTime );
+    }
+
+    public long getLastRunEndTime( )
+    {
+        return _lLastRunEndTime;
+    }
+
+    /**
+     * @return true if the run was interrupted after its timeout
+     */
+    public boolean isTimedOut( )
+    {
+        return _bTimedOut;
     }
 
     public String getLastRunLogs( )
     {
-        return _strLastRunLogs;
+        switch( _nLogsFormat )
+        {
+            case LOGS_PLAIN:
+                return new String( _logs, StandardCharsets.UTF_8 );
+            case LOGS_GZIP:
+                return new String( gunzip( _logs ), StandardCharsets.UTF_8 );
+            default:
+                return null;
+        }
+    }
+
+    @Override
+    public void writeExternal( ObjectOutput out ) throws IOException
+    {
+        out.writeUTF( _strId );
+        out.writeLong( _lLastRunEndTime );
+        out.writeByte( _bTimedOut ? _nLogsFormat | FLAG_TIMED_OUT : _nLogsFormat );
+        if ( _nLogsFormat != LOGS_NONE )
+        {
+            out.writeInt( _logs.length );
+            out.write( _logs );
+        }
+    }
+
+    @Override
+    public void readExternal( ObjectInput in ) throws IOException
+    {
+        _strId = in.readUTF( );
+        _lLastRunEndTime = in.readLong( );
+        byte nHeader = in.readByte( );
+        _bTimedOut = ( nHeader & FLAG_TIMED_OUT ) != 0;
+        _nLogsFormat = (byte) ( nHeader & LOGS_FORMAT_MASK );
+        if ( _nLogsFormat != LOGS_NONE )
+        {
+            _logs = new byte [ in.readInt( )];
+            in.readFully( _logs );
+        }
+    }
+
+    private static String truncate( String strLogs, int nMaxLength )
+    {
+        if ( null == strLogs || nMaxLength <= 0 || strLogs.length( ) <= nMaxLength )
+        {
+            return strLogs;
+        }
+        return strLogs.substring( 0, nMaxLength ) + TRUNCATED_SUFFIX;
+    }
+
+    private void encodeLogs( String strLogs, int nCompressionThreshold )
+    {
+        if ( null == strLogs )
+        {
+            _nLogsFormat = LOGS_NONE;
+            return;
+        }
+        byte [ ] logs = strLogs.getBytes( StandardCharsets.UTF_8 );
+        if ( nCompressionThreshold >= 0 && logs.length > nCompressionThreshold )
+        {
+            byte [ ] compressed = gzip( logs );
+            if ( compressed.length < logs.length )
+            {
+                _nLogsFormat = LOGS_GZIP;
+                _logs = compressed;
+                return;
+            }
+        }
+        _nLogsFormat = LOGS_PLAIN;
+        _logs = logs;
+    }
+
+    private static byte [ ] gzip( byte [ ] data )
+    {
+        ByteArrayOutputStream out = new ByteArrayOutputStream( data.length / 2 );
+        try ( GZIPOutputStream gzip = new GZIPOutputStream( out ) )
+        {
+            gzip.write( data );
+        }
+        catch( IOException e )
+        {
+            throw new UncheckedIOException( e );
+        }
+        return out.toByteArray( );
+    }
+
+    private static byte [ ] gunzip( byte [ ] data )
+    {
+        try ( GZIPInputStream gzip = new GZIPInputStream( new ByteArrayInputStream( data ) ) )
+        {
+            return gzip.readAllBytes( );
+        }
+        catch( IOException e )
+        {
+            throw new UncheckedIOException( e );
+        }
     }
 
 }
@@ -0,0 +1,115 @@
+/*
+ * Copyright (c) 2002-2025, City of Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.scheduler.quartz.job;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.quartz.JobExecutionContext;
+import org.quartz.Trigger;
+import org.quartz.Trigger.CompletedExecutionInstruction;
+import org.quartz.listeners.TriggerListenerSupport;
+
+import fr.paris.lutece.plugins.scheduler.quartz.Constants;
+import fr.paris.lutece.plugins.scheduler.quartz.service.LeaseService;
+
+/**
+ * Vetoes the fires of the exclusive daemons for which another node holds the lease, and releases the lease when the run ends. A fire is vetoed when
+ * the lease can not be checked. Quartz calls every trigger listener, even after a veto : registered after the other vetoing listeners, this listener
+ * does not take the lease of a fire they have vetoed, and gives back the misfire replay budget of the fires it vetoes. The lease of a fire vetoed
+ * afterwards is given back by the {@link DaemonEntryJobListener}.
+ */
+public class LeaseTriggerListener extends TriggerListenerSupport
+{
+    private Logger _logger = LogManager.getLogger( "lutece.scheduler.quartz" );
+    private final LeaseService _leaseService;
+    private final MisfireTriggerListener _misfireTriggerListener;
+
+    /**
+     * Constructor
+     * 
+     * @param leaseService
+     *            the lease service
+     * @param misfireTriggerListener
+     *            the misfire listener registered before this one
+     */
+    public LeaseTriggerListener( LeaseService leaseService, MisfireTriggerListener misfireTriggerListener )
+    {
+        _leaseService = leaseService;
+        _misfireTriggerListener = misfireTriggerListener;
+    }
+
+    @Override
+    public String getName( )
+    {
+        return LeaseTriggerListener.class.getName( );
+    }
+
+    @Override
+    public boolean vetoJobExecution( Trigger trigger, JobExecutionContext context )
+    {
+        if ( !isExclusive( context ) || Boolean.TRUE.equals( context.get( Constants.FIRE_VETOED_CONTEXT_KEY ) ) )
+        {
+            return false;
+        }
+        boolean bAcquired;
+        try
+        {
+            bAcquired = _leaseService.acquire( context.getJobDetail( ).getKey( ).getName( ), context.getScheduledFireTime( ).getTime( ) );
+        }
+        catch( Exception e )
+        {
+            _logger.error( "Error taking the lease of job {}, the fire is skipped", context.getJobDetail( ).getKey( ).getName( ), e );
+            bAcquired = false;
+        }
+        if ( !bAcquired )
+        {
+            _misfireTriggerListener.cancelReplay( context );
+        }
+        return !bAcquired;
+    }
+
+    @Override
+    public void triggerComplete( Trigger trigger, JobExecutionContext context, CompletedExecutionInstruction triggerInstructionCode )
+    {
+        if ( isExclusive( context ) )
+        {
+            _leaseService.release( context.getJobDetail( ).getKey( ).getName( ) );
+        }
+    }
+
+    private static boolean isExclusive( JobExecutionContext context )
+    {
+        return Boolean.parseBoolean( (String) context.getJobDetail( ).getJobDataMap( ).get( Constants.DAEMON_EXCLUSIVE_JOB_MAP_KEY ) );
+    }
+}
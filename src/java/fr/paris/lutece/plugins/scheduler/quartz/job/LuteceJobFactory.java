@@ -33,9 +33,15 @@
  */
 package fr.paris.lutece.plugins.scheduler.quartz.job;
 
+import java.lang.reflect.Constructor;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.quartz.Job;
+import org.quartz.JobDetail;
+import org.quartz.JobKey;
 import org.quartz.Scheduler;
 import org.quartz.SchedulerException;
 import org.quartz.spi.JobFactory;
@@ -44,23 +50,34 @@ import org.quartz.spi.TriggerFiredBundle;
 import fr.paris.lutece.plugins.scheduler.quartz.Constants;
 import fr.paris.lutece.portal.service.daemon.AppDaemonService;
 import fr.paris.lutece.portal.service.daemon.Daemon;
+import jakarta.enterprise.inject.Instance;
+import jakarta.enterprise.inject.spi.Bean;
+import jakarta.enterprise.inject.spi.BeanManager;
 import jakarta.enterprise.inject.spi.CDI;
+import jakarta.inject.Singleton;
 
 /**
  * Quartz job factory that manages the creation of Quartz jobs through a native Quartz job, a native Quartz job as CDI bean or a Lutece Daemon that will be
  * wrapped in a DaemonJob.
+ * <p>
+ * The way to obtain the job instance is resolved once per JobKey and cached, so that a fire only costs a map lookup : the daemon for a Lutece daemon, the
+ * contextual reference for a normal scoped or singleton CDI bean, the CDI Instance handle for a dependent bean and the no-arg constructor otherwise. The
+ * cache is filled when the job is scheduled ({@link #prepare(JobDetail)}) or at its first fire, and cleared when the job is unscheduled
+ * ({@link #invalidate(JobKey)}).
+ * </p>
  */
 public class LuteceJobFactory implements JobFactory
 {
 
     private Logger _logger = LogManager.getLogger( "lutece.scheduler.quartz" );
+    private final Map<JobKey, JobProvider> _mapJobProviders = new ConcurrentHashMap<>( );
 
     @Override
     public Job newJob( TriggerFiredBundle bundle, Scheduler scheduler ) throws SchedulerException
     {
         try
         {
-            return buildJob( getJobInstance( bundle ) );
+            return getJobProvider( bundle.getJobDetail( ) ).newJob( );
         }
         catch( Exception e )
         {
@@ -69,28 +86,92 @@ public class LuteceJobFactory implements JobFactory
         }
     }
 
-    private Object getJobInstance( TriggerFiredBundle bundle ) throws Exception
+    /**
+     * Resolve and cache the way to instantiate the given job, so that its first fire does not pay the resolution
+     * 
+     * @param jobDetail
+     *            the scheduled job
+     */
+    public void prepare( JobDetail jobDetail )
     {
-        String daemonEntryId = (String) bundle.getJobDetail( ).getJobDataMap( ).get( Constants.DAEMON_ENTRY_ID_JOB_MAP_KEY );
-        if ( null != daemonEntryId )
+        try
         {
-            // Load daemon from daemon entry
-            return AppDaemonService.getDaemon( daemonEntryId );
+            getJobProvider( jobDetail );
         }
-        else
+        catch( Exception e )
+        {
+            _logger.debug( "Unable to prepare the job {}, it will be resolved at fire time", jobDetail.getKey( ), e );
+        }
+    }
+
+    /**
+     * Remove a job from the cache
+     * 
+     * @param jobKey
+     *            the key of the unscheduled job
+     */
+    public void invalidate( JobKey jobKey )
+    {
+        _mapJobProviders.remove( jobKey );
+    }
+
+    private JobProvider getJobProvider( JobDetail jobDetail ) throws Exception
+    {
+        JobProvider provider = _mapJobProviders.get( jobDetail.getKey( ) );
+        if ( null == provider )
         {
-            // Load job from a native Quartz job
-            Class<?> jobClass = bundle.getJobDetail( ).getJobClass( );
+            provider = createJobProvider( jobDetail );
+            JobProvider previous = _mapJobProviders.putIfAbsent( jobDetail.getKey( ), provider );
+            if ( null != previous )
+            {
+                provider = previous;
+            }
+        }
+        return provider;
+    }
 
-            // Try to load the native Job as a CDI bean
-            Object o = CDI.current( ).select( jobClass ).get( );
-            if ( null != o )
+    private JobProvider createJobProvider( JobDetail jobDetail ) throws Exception
+    {
+        String daemonEntryId = (String) jobDetail.getJobDataMap( ).get( Constants.DAEMON_ENTRY_ID_JOB_MAP_KEY );
+        if ( null != daemonEntryId )
+        {
+            // Load daemon from daemon entry
+            Daemon daemon = AppDaemonService.getDaemon( daemonEntryId );
+            if ( null == daemon )
             {
-                return o;
+                throw new IllegalArgumentException( "No daemon registered with the id " + daemonEntryId );
             }
+            return ( ) -> new DaemonJob( daemon );
+        }
+
+        // Load job from a native Quartz job
+        Class<?> jobClass = jobDetail.getJobClass( );
 
-            return jobClass.getDeclaredConstructor( ).newInstance( );
+        // Try to load the native Job as a CDI bean
+        Instance<?> instance = CDI.current( ).select( jobClass );
+        if ( instance.isResolvable( ) )
+        {
+            if ( isShared( jobClass ) )
+            {
+                Job job = buildJob( instance.get( ) );
+                return ( ) -> job;
+            }
+            return ( ) -> buildJob( instance.get( ) );
         }
+
+        Constructor<?> constructor = jobClass.getDeclaredConstructor( );
+        return ( ) -> buildJob( constructor.newInstance( ) );
+    }
+
+    /**
+     * Check whether the CDI bean of the given class can be reused between fires : normal scoped beans are accessed through a client proxy and singletons are
+     * unique, while dependent beans must be created for each fire.
+     */
+    private static boolean isShared( Class<?> jobClass )
+    {
+        BeanManager beanManager = CDI.current( ).getBeanManager( );
+        Bean<?> bean = beanManager.resolve( beanManager.getBeans( jobClass ) );
+        return null != bean && ( beanManager.isNormalScope( bean.getScope( ) ) || Singleton.class.equals( bean.getScope( ) ) );
     }
 
     /**
@@ -102,7 +183,7 @@ public class LuteceJobFactory implements JobFactory
      * @throws Exception
      *             if the given job could not be wrapped
      */
-    private Job buildJob( Object oJob ) throws Exception
+    private static Job buildJob( Object oJob ) throws Exception
     {
         if ( oJob instanceof Job job )
         {
@@ -121,4 +202,13 @@ public class LuteceJobFactory implements JobFactory
             }
         }
     }
+
+    /**
+     * Cached way to obtain the job instance for a fire
+     */
+    @FunctionalInterface
+    private interface JobProvider
+    {
+        Job newJob( ) throws Exception;
+    }
 }
@@ -0,0 +1,221 @@
+/*
+ * Copyright (c) 2002-2025, City of Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.scheduler.quartz.job;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+import java.util.function.ObjLongConsumer;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.quartz.CronTrigger;
+import org.quartz.JobExecutionContext;
+import org.quartz.JobKey;
+import org.quartz.SimpleTrigger;
+import org.quartz.Trigger;
+import org.quartz.TriggerKey;
+import org.quartz.listeners.TriggerListenerSupport;
+
+import fr.paris.lutece.plugins.scheduler.quartz.Constants;
+import fr.paris.lutece.plugins.scheduler.quartz.service.JobMetricsService;
+
+/**
+ * Counts the misfires and limits the number of misfired fires replayed per second, so that the recovery after a stall (GC pause, database outage, node
+ * downtime) is spread instead of firing all the overdue triggers at once. The replays over the limit are vetoed and deferred to the next second with
+ * some replay budget left, in the order of their misfire. The same instance is shared by both schedulers, so the limit is global to the node.
+ * <p>
+ * Only the misfires handled by firing the trigger now are replays. A fire is counted as a replay if it was scheduled by the misfire handling, right after
+ * the misfire, so that a later regular fire is never vetoed, even if the replay ran on another node of the cluster.
+ * </p>
+ */
+public class MisfireTriggerListener extends TriggerListenerSupport
+{
+    // Maximum delay between the misfire and the fire time set by the misfire handling
+    private static final long REPLAY_WINDOW = 1000L;
+    // Second of the replay budget used by a fire, kept in its execution context
+    private static final String REPLAY_SECOND_CONTEXT_KEY = "MISFIRE_REPLAY_SECOND";
+
+    private Logger _logger = LogManager.getLogger( "lutece.scheduler.quartz" );
+    private final JobMetricsService _jobMetricsService;
+    private final int _nMaxReplaysPerSecond;
+    private final ObjLongConsumer<JobKey> _deferral;
+    private final LongSupplier _clock;
+    private final Map<TriggerKey, Long> _mapMisfireTimes = new ConcurrentHashMap<>( );
+    // Last second with granted replays, in the future when replays have been deferred
+    private long _lCurrentSecond;
+    private int _nReplaysInSecond;
+
+    /**
+     * Constructor
+     * 
+     * @param jobMetricsService
+     *            the metrics service
+     * @param nMaxReplaysPerSecond
+     *            the maximum number of misfired fires replayed per second, 0 or less for no limit
+     * @param deferral
+     *            requests a run of a job after a delay in milliseconds, for the replays over the limit
+     */
+    public MisfireTriggerListener( JobMetricsService jobMetricsService, int nMaxReplaysPerSecond, ObjLongConsumer<JobKey> deferral )
+    {
+        this( jobMetricsService, nMaxReplaysPerSecond, deferral, System::currentTimeMillis );
+    }
+
+    /**
+     * Constructor with a given clock
+     * 
+     * @param jobMetricsService
+     *            the metrics service
+     * @param nMaxReplaysPerSecond
+     *            the maximum number of misfired fires replayed per second, 0 or less for no limit
+     * @param deferral
+     *            requests a run of a job after a delay in milliseconds, for the replays over the limit
+     * @param clock
+     *            the current time in milliseconds
+     */
+    MisfireTriggerListener( JobMetricsService jobMetricsService, int nMaxReplaysPerSecond, ObjLongConsumer<JobKey> deferral, LongSupplier clock )
+    {
+        _jobMetricsService = jobMetricsService;
+        _nMaxReplaysPerSecond = nMaxReplaysPerSecond;
+        _deferral = deferral;
+        _clock = clock;
+    }
+
+    @Override
+    public String getName( )
+    {
+        return MisfireTriggerListener.class.getName( );
+    }
+
+    @Override
+    public void triggerMisfired( Trigger trigger )
+    {
+        _jobMetricsService.recordMisfire( trigger.getJobKey( ), false );
+        if ( _nMaxReplaysPerSecond > 0 && isFiredNow( trigger ) )
+        {
+            _mapMisfireTimes.put( trigger.getKey( ), _clock.getAsLong( ) );
+        }
+    }
+
+    @Override
+    public boolean vetoJobExecution( Trigger trigger, JobExecutionContext context )
+    {
+        Long lMisfireTime = _mapMisfireTimes.remove( trigger.getKey( ) );
+        if ( null == lMisfireTime || null == context.getScheduledFireTime( ) || context.getScheduledFireTime( ).getTime( ) > lMisfireTime + REPLAY_WINDOW )
+        {
+            return false;
+        }
+        long lNow = _clock.getAsLong( );
+        long lReplayTime = acquireReplay( context, lNow );
+        if ( lReplayTime <= lNow )
+        {
+            return false;
+        }
+        // The fire is replaced by a requested run, merged with the pending requested run of the daemon if any
+        context.put( Constants.FIRE_VETOED_CONTEXT_KEY, Boolean.TRUE );
+        _jobMetricsService.recordMisfire( trigger.getJobKey( ), true );
+        _deferral.accept( trigger.getJobKey( ), lReplayTime - lNow );
+        _logger.debug( "Replay of the misfired trigger {} deferred by {} ms, more than {} replays per second", trigger.getKey( ), lReplayTime - lNow,
+                _nMaxReplaysPerSecond );
+        return true;
+    }
+
+    /**
+     * Check whether the misfire instruction of a trigger fires it now. The listener receives the trigger before the instruction is applied, so the smart
+     * policy is resolved the way Quartz does.
+     */
+    private static boolean isFiredNow( Trigger trigger )
+    {
+        int nInstruction = trigger.getMisfireInstruction( );
+        if ( nInstruction == Trigger.MISFIRE_INSTRUCTION_IGNORE_MISFIRE_POLICY )
+        {
+            return true;
+        }
+        if ( trigger instanceof SimpleTrigger )
+        {
+            if ( nInstruction == Trigger.MISFIRE_INSTRUCTION_SMART_POLICY )
+            {
+                // A trigger repeating forever waits for its next fire time, the other ones fire now
+                return ( (SimpleTrigger) trigger ).getRepeatCount( ) != SimpleTrigger.REPEAT_INDEFINITELY;
+            }
+            return nInstruction == SimpleTrigger.MISFIRE_INSTRUCTION_FIRE_NOW || nInstruction == SimpleTrigger.MISFIRE_INSTRUCTION_RESCHEDULE_NOW_WITH_EXISTING_REPEAT_COUNT
+                    || nInstruction == SimpleTrigger.MISFIRE_INSTRUCTION_RESCHEDULE_NOW_WITH_REMAINING_REPEAT_COUNT;
+        }
+        // Cron and calendar triggers : the smart policy fires once now
+        return nInstruction == Trigger.MISFIRE_INSTRUCTION_SMART_POLICY || nInstruction == CronTrigger.MISFIRE_INSTRUCTION_FIRE_ONCE_NOW;
+    }
+
+    /**
+     * Give back the replay budget used by a fire vetoed by a listener called after this one
+     * 
+     * @param context
+     *            the execution context of the vetoed fire
+     */
+    public synchronized void cancelReplay( JobExecutionContext context )
+    {
+        Object second = context.get( REPLAY_SECOND_CONTEXT_KEY );
+        if ( second instanceof Long && (Long) second == _lCurrentSecond && _nReplaysInSecond > 0 )
+        {
+            _nReplaysInSecond--;
+        }
+    }
+
+    /**
+     * Grant a replay in the first second with replay budget left, from the current second on. The budget of a later second is taken by the deferred
+     * replays, so that the deferred replays are spread as well.
+     * 
+     * @return the time of the replay : the current time, or the start of a later second for a deferred replay
+     */
+    private synchronized long acquireReplay( JobExecutionContext context, long lNow )
+    {
+        long lSecond = lNow / 1000L;
+        if ( lSecond > _lCurrentSecond )
+        {
+            _lCurrentSecond = lSecond;
+            _nReplaysInSecond = 0;
+        }
+        if ( _nReplaysInSecond >= _nMaxReplaysPerSecond )
+        {
+            _lCurrentSecond++;
+            _nReplaysInSecond = 0;
+        }
+        _nReplaysInSecond++;
+        if ( _lCurrentSecond > lSecond )
+        {
+            return _lCurrentSecond * 1000L;
+        }
+        context.put( REPLAY_SECOND_CONTEXT_KEY, lSecond );
+        return lNow;
+    }
+}
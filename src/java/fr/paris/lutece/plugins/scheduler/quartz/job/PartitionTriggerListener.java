@@ -0,0 +1,84 @@
+/*
+ * Copyright (c) 2002-2025, City of Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.scheduler.quartz.job;
+
+import org.quartz.JobExecutionContext;
+import org.quartz.Scheduler;
+import org.quartz.Trigger;
+import org.quartz.listeners.TriggerListenerSupport;
+
+import fr.paris.lutece.plugins.scheduler.quartz.Constants;
+import fr.paris.lutece.plugins.scheduler.quartz.service.PartitionService;
+
+/**
+ * Vetoes the scheduled fires of the partitioned daemons that are assigned to another node of the cluster. Manual fires always run on the node that
+ * requested them.
+ */
+public class PartitionTriggerListener extends TriggerListenerSupport
+{
+    private final PartitionService _partitionService;
+
+    /**
+     * Constructor
+     * 
+     * @param partitionService
+     *            the partition service
+     */
+    public PartitionTriggerListener( PartitionService partitionService )
+    {
+        _partitionService = partitionService;
+    }
+
+    @Override
+    public String getName( )
+    {
+        return PartitionTriggerListener.class.getName( );
+    }
+
+    @Override
+    public boolean vetoJobExecution( Trigger trigger, JobExecutionContext context )
+    {
+        if ( Scheduler.DEFAULT_MANUAL_TRIGGERS.equals( trigger.getKey( ).getGroup( ) )
+                || !Boolean.parseBoolean( (String) context.getJobDetail( ).getJobDataMap( ).get( Constants.DAEMON_PARTITIONED_JOB_MAP_KEY ) ) )
+        {
+            return false;
+        }
+        if ( _partitionService.isOwner( context.getJobDetail( ).getKey( ).getName( ) ) )
+        {
+            return false;
+        }
+        context.put( Constants.FIRE_VETOED_CONTEXT_KEY, Boolean.TRUE );
+        return true;
+    }
+}
@@ -0,0 +1,229 @@
+/*
+ * Copyright (c) 2002-2025, City of Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.scheduler.quartz.metrics;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Last executions of a job, kept in a ring of fixed capacity. The executions are stored in primitive arrays allocated once, so that recording an
+ * execution allocates nothing and the memory used does not grow with the number of runs. The nodes are stored as indexes in a table of node names
+ * shared by the histories of a node.
+ */
+public class ExecutionHistory
+{
+    /** The run ended normally */
+    public static final int STATUS_SUCCESS = 0;
+    /** The run ended with an error */
+    public static final int STATUS_FAILURE = 1;
+    /** The run was interrupted after its timeout */
+    public static final int STATUS_TIMEOUT = 2;
+
+    private final String _strJobName;
+    private final List<String> _listNodes;
+    private final long [ ] _startTimes;
+    private final long [ ] _endTimes;
+    private final long [ ] _durations;
+    private final byte [ ] _statuses;
+    private final short [ ] _nodes;
+    private final String [ ] _logs;
+    private int _nNext;
+    private int _nSize;
+
+    /**
+     * Constructor
+     * 
+     * @param strJobName
+     *            the job name
+     * @param nCapacity
+     *            the number of executions kept
+     * @param bKeepLogs
+     *            true to keep the beginning of the run logs
+     * @param listNodes
+     *            the table of the node names the node indexes refer to
+     */
+    public ExecutionHistory( String strJobName, int nCapacity, boolean bKeepLogs, List<String> listNodes )
+    {
+        _strJobName = strJobName;
+        _listNodes = listNodes;
+        _startTimes = new long [ nCapacity];
+        _endTimes = new long [ nCapacity];
+        _durations = new long [ nCapacity];
+        _statuses = new byte [ nCapacity];
+        _nodes = new short [ nCapacity];
+        _logs = bKeepLogs ? new String [ nCapacity] : null;
+    }
+
+    /**
+     * Record an execution, replacing the oldest one once the history is full
+     * 
+     * @param lStartTime
+     *            the fire time, in epoch milliseconds
+     * @param lEndTime
+     *            the end time, in epoch milliseconds
+     * @param lDuration
+     *            the run duration, in milliseconds
+     * @param nStatus
+     *            the status, one of the STATUS_* codes
+     * @param nNode
+     *            the index of the node in the node table
+     * @param strLogs
+     *            the beginning of the run logs, or null
+     */
+    public synchronized void record( long lStartTime, long lEndTime, long lDuration, int nStatus, int nNode, String strLogs )
+    {
+        int nCapacity = _startTimes.length;
+        if ( nCapacity == 0 )
+        {
+            return;
+        }
+        _startTimes [_nNext] = lStartTime;
+        _endTimes [_nNext] = lEndTime;
+        _durations [_nNext] = lDuration;
+        _statuses [_nNext] = (byte) nStatus;
+        _nodes [_nNext] = (short) nNode;
+        if ( null != _logs )
+        {
+            _logs [_nNext] = strLogs;
+        }
+        _nNext = ( _nNext + 1 ) % nCapacity;
+        _nSize = Math.min( _nSize + 1, nCapacity );
+    }
+
+    public String getJobName( )
+    {
+        return _strJobName;
+    }
+
+    public int getCapacity( )
+    {
+        return _startTimes.length;
+    }
+
+    public synchronized int getSize( )
+    {
+        return _nSize;
+    }
+
+    /**
+     * Get the given percentile of the run durations in the history
+     * 
+     * @param dPercentile
+     *            the percentile, between 0 and 100
+     * @return the duration in milliseconds, 0 if the history is empty
+     */
+    public long getDurationPercentile( double dPercentile )
+    {
+        long [ ] durations;
+        synchronized( this )
+        {
+            if ( _nSize == 0 )
+            {
+                return 0;
+            }
+            durations = Arrays.copyOf( _durations, _nSize );
+        }
+        // The ring is filled from its first slot, the first _nSize slots hold the recorded executions
+        Arrays.sort( durations );
+        int nRank = (int) Math.ceil( durations.length * Math.min( 100d, Math.max( 0d, dPercentile ) ) / 100d );
+        return durations [Math.max( nRank - 1, 0 )];
+    }
+
+    /**
+     * Get the number of consecutive failed or timed out runs, up to the last one
+     * 
+     * @return the failure streak, 0 if the last run succeeded
+     */
+    public synchronized int getFailureStreak( )
+    {
+        int nCapacity = _startTimes.length;
+        int nStreak = 0;
+        for ( int i = 1; i <= _nSize; i++ )
+        {
+            if ( _statuses [Math.floorMod( _nNext - i, nCapacity )] == STATUS_SUCCESS )
+            {
+                break;
+            }
+            nStreak++;
+        }
+        return nStreak;
+    }
+
+    /**
+     * Get the number of runs with the given status in the history
+     * 
+     * @param nStatus
+     *            the status, one of the STATUS_* codes
+     * @return the number of runs
+     */
+    public synchronized int getCount( int nStatus )
+    {
+        int nCount = 0;
+        for ( int i = 0; i < _nSize; i++ )
+        {
+            if ( _statuses [i] == nStatus )
+            {
+                nCount++;
+            }
+        }
+        return nCount;
+    }
+
+    /**
+     * Get the executions in the history
+     * 
+     * @return the executions, the most recent first
+     */
+    public synchronized List<ExecutionRecord> getRecords( )
+    {
+        int nCapacity = _startTimes.length;
+        List<ExecutionRecord> listRecords = new ArrayList<>( _nSize );
+        for ( int i = 1; i <= _nSize; i++ )
+        {
+            int nIndex = Math.floorMod( _nNext - i, nCapacity );
+            listRecords.add( new ExecutionRecord( _startTimes [nIndex], _endTimes [nIndex], _durations [nIndex], _statuses [nIndex],
+                    _listNodes.get( _nodes [nIndex] ), null == _logs ? null : _logs [nIndex] ) );
+        }
+        return listRecords;
+    }
+
+    @Override
+    public String toString( )
+    {
+        return String.format( "%s runs=%d failures=%d timeouts=%d failureStreak=%d duration[p50=%d p95=%d max=%d]", _strJobName, getSize( ),
+                getCount( STATUS_FAILURE ), getCount( STATUS_TIMEOUT ), getFailureStreak( ), getDurationPercentile( 50 ), getDurationPercentile( 95 ),
+                getDurationPercentile( 100 ) );
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2002-2025, City of Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.scheduler.quartz.metrics;
+
+/**
+ * A past execution of a job, read from its {@link ExecutionHistory}
+ */
+public class ExecutionRecord
+{
+    private final long _lStartTime;
+    private final long _lEndTime;
+    private final long _lDuration;
+    private final int _nStatus;
+    private final String _strNode;
+    private final String _strLogs;
+
+    /**
+     * Constructor
+     * 
+     * @param lStartTime
+     *            the fire time, in epoch milliseconds
+     * @param lEndTime
+     *            the end time, in epoch milliseconds
+     * @param lDuration
+     *            the run duration, in milliseconds
+     * @param nStatus
+     *            the status, one of the ExecutionHistory.STATUS_* codes
+     * @param strNode
+     *            the scheduler instance that ran the job
+     * @param strLogs
+     *            the beginning of the run logs, or null
+     */
+    public ExecutionRecord( long lStartTime, long lEndTime, long lDuration, int nStatus, String strNode, String strLogs )
+    {
+        _lStartTime = lStartTime;
+        _lEndTime = lEndTime;
+        _lDuration = lDuration;
+        _nStatus = nStatus;
+        _strNode = strNode;
+        _strLogs = strLogs;
+    }
+
+    public long getStartTime( )
+    {
+        return _lStartTime;
+    }
+
+    public long getEndTime( )
+    {
+        return _lEndTime;
+    }
+
+    public long getDuration( )
+    {
+        return _lDuration;
+    }
+
+    public int getStatus( )
+    {
+        return _nStatus;
+    }
+
+    public String getNode( )
+    {
+        return _strNode;
+    }
+
+    public String getLogs( )
+    {
+        return _strLogs;
+    }
+}
@@ -0,0 +1,179 @@
+/*
+ * Copyright (c) 2002-2025, City of Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.scheduler.quartz.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Execution metrics of a single job : fire lag and run duration histograms, and fire, failure and veto counters.
+ */
+public class JobMetrics
+{
+    private final String _strJobName;
+    private final LatencyHistogram _fireLag = new LatencyHistogram( );
+    private final LatencyHistogram _runDuration = new LatencyHistogram( );
+    private final LongAdder _fires = new LongAdder( );
+    private final LongAdder _failures = new LongAdder( );
+    private final LongAdder _vetoes = new LongAdder( );
+    private final LongAdder _misfires = new LongAdder( );
+    private final LongAdder _throttledMisfires = new LongAdder( );
+    private final LongAdder _timeouts = new LongAdder( );
+
+    /**
+     * Constructor
+     * 
+     * @param strJobName
+     *            the job name
+     */
+    public JobMetrics( String strJobName )
+    {
+        _strJobName = strJobName;
+    }
+
+    /**
+     * Record a job fire
+     * 
+     * @param lFireLag
+     *            the delay between the scheduled and the actual fire time, in milliseconds
+     */
+    public void recordFire( long lFireLag )
+    {
+        _fires.increment( );
+        _fireLag.record( lFireLag );
+    }
+
+    /**
+     * Record the end of a job execution
+     * 
+     * @param lDuration
+     *            the run duration in milliseconds
+     * @param bFailed
+     *            true if the execution ended with an error
+     */
+    public void recordExecution( long lDuration, boolean bFailed )
+    {
+        _runDuration.record( lDuration );
+        if ( bFailed )
+        {
+            _failures.increment( );
+        }
+    }
+
+    /**
+     * Record a vetoed execution
+     */
+    public void recordVeto( )
+    {
+        _vetoes.increment( );
+    }
+
+    /**
+     * Record a misfired trigger, or the deferred replay of a misfired trigger
+     * 
+     * @param bThrottled
+     *            false for a misfire, true if the replay of the misfired fire was deferred to limit the catch-up rate
+     */
+    public void recordMisfire( boolean bThrottled )
+    {
+        if ( bThrottled )
+        {
+            _throttledMisfires.increment( );
+        }
+        else
+        {
+            _misfires.increment( );
+        }
+    }
+
+    /**
+     * Record a run interrupted after its timeout
+     */
+    public void recordTimeout( )
+    {
+        _timeouts.increment( );
+    }
+
+    public String getJobName( )
+    {
+        return _strJobName;
+    }
+
+    public LatencyHistogram getFireLag( )
+    {
+        return _fireLag;
+    }
+
+    public LatencyHistogram getRunDuration( )
+    {
+        return _runDuration;
+    }
+
+    public long getFireCount( )
+    {
+        return _fires.sum( );
+    }
+
+    public long getFailureCount( )
+    {
+        return _failures.sum( );
+    }
+
+    public long getVetoCount( )
+    {
+        return _vetoes.sum( );
+    }
+
+    public long getMisfireCount( )
+    {
+        return _misfires.sum( );
+    }
+
+    public long getThrottledMisfireCount( )
+    {
+        return _throttledMisfires.sum( );
+    }
+
+    public long getTimeoutCount( )
+    {
+        return _timeouts.sum( );
+    }
+
+    @Override
+    public String toString( )
+    {
+        return String.format( "%s fires=%d failures=%d vetoes=%d misfires=%d throttledMisfires=%d timeouts=%d lag[p50=%d p99=%d max=%d] duration[p50=%d p99=%d max=%d]",
+                _strJobName, getFireCount( ), getFailureCount( ), getVetoCount( ), getMisfireCount( ), getThrottledMisfireCount( ), getTimeoutCount( ),
+                _fireLag.getPercentile( 50 ), _fireLag.getPercentile( 99 ), _fireLag.getMax( ), _runDuration.getPercentile( 50 ), _runDuration.getPercentile( 99 ), _runDuration.getMax( ) );
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright (c) 2002-2025, City of Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.scheduler.quartz.metrics;
+
+/**
+ * Snapshot of the activity of an execution lane
+ */
+public class LaneStatus
+{
+    private final String _strName;
+    private final int _nPoolSize;
+    private final int _nExecutingCount;
+    private final int _nQueueDepth;
+
+    /**
+     * Constructor
+     * 
+     * @param strName
+     *            the lane name
+     * @param nPoolSize
+     *            the number of threads of the lane
+     * @param nExecutingCount
+     *            the number of jobs currently running in the lane
+     * @param nQueueDepth
+     *            the number of triggers due and waiting for a thread
+     */
+    public LaneStatus( String strName, int nPoolSize, int nExecutingCount, int nQueueDepth )
+    {
+        _strName = strName;
+        _nPoolSize = nPoolSize;
+        _nExecutingCount = nExecutingCount;
+        _nQueueDepth = nQueueDepth;
+    }
+
+    public String getName( )
+    {
+        return _strName;
+    }
+
+    public int getPoolSize( )
+    {
+        return _nPoolSize;
+    }
+
+    public int getExecutingCount( )
+    {
+        return _nExecutingCount;
+    }
+
+    public int getQueueDepth( )
+    {
+        return _nQueueDepth;
+    }
+
+    /**
+     * Get the ratio of busy threads
+     * 
+     * @return the utilization, between 0 and 1
+     */
+    public double getUtilization( )
+    {
+        return _nPoolSize == 0 ? 0 : (double) _nExecutingCount / _nPoolSize;
+    }
+
+    @Override
+    public String toString( )
+    {
+        return String.format( "%s threads=%d executing=%d queued=%d", _strName, _nPoolSize, _nExecutingCount, _nQueueDepth );
+    }
+}
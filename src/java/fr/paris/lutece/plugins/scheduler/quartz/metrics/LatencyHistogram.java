@@ -0,0 +1,141 @@
+/*
+ * Copyright (c) 2002-2025, City of Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.scheduler.quartz.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free latency histogram with power of two buckets (in milliseconds). Recording a value costs a couple of atomic increments and no allocation, so it
+ * can be used on the job fire path. Percentiles are approximated by the upper bound of the matching bucket.
+ */
+public class LatencyHistogram
+{
+    private static final int BUCKET_COUNT = 40;
+
+    private final AtomicLongArray _buckets = new AtomicLongArray( BUCKET_COUNT );
+    private final LongAdder _count = new LongAdder( );
+    private final LongAdder _sum = new LongAdder( );
+    private final LongAccumulator _max = new LongAccumulator( Math::max, 0L );
+
+    /**
+     * Record a value
+     * 
+     * @param lValue
+     *            the value in milliseconds, negative values are recorded as zero
+     */
+    public void record( long lValue )
+    {
+        long lMillis = Math.max( 0L, lValue );
+        _buckets.incrementAndGet( getBucketIndex( lMillis ) );
+        _count.increment( );
+        _sum.add( lMillis );
+        _max.accumulate( lMillis );
+    }
+
+    /**
+     * Get the number of recorded values
+     * 
+     * @return the count
+     */
+    public long getCount( )
+    {
+        return _count.sum( );
+    }
+
+    /**
+     * Get the highest recorded value
+     * 
+     * @return the max in milliseconds
+     */
+    public long getMax( )
+    {
+        return _max.get( );
+    }
+
+    /**
+     * Get the mean of the recorded values
+     * 
+     * @return the mean in milliseconds, 0 if nothing was recorded
+     */
+    public double getMean( )
+    {
+        long lCount = getCount( );
+        return lCount == 0 ? 0 : (double) _sum.sum( ) / lCount;
+    }
+
+    /**
+     * Get an approximation of the given percentile
+     * 
+     * @param dPercentile
+     *            the percentile, between 0 and 100
+     * @return the upper bound of the bucket holding the percentile, in milliseconds
+     */
+    public long getPercentile( double dPercentile )
+    {
+        long [ ] counts = new long [ BUCKET_COUNT];
+        long lTotal = 0;
+        for ( int i = 0; i < BUCKET_COUNT; i++ )
+        {
+            counts [i] = _buckets.get( i );
+            lTotal += counts [i];
+        }
+        if ( lTotal == 0 )
+        {
+            return 0;
+        }
+        long lRank = (long) Math.ceil( lTotal * Math.min( 100d, Math.max( 0d, dPercentile ) ) / 100d );
+        long lSeen = 0;
+        for ( int i = 0; i < BUCKET_COUNT; i++ )
+        {
+            lSeen += counts [i];
+            if ( lSeen >= lRank && counts [i] > 0 )
+            {
+                return Math.min( getBucketUpperBound( i ), getMax( ) );
+            }
+        }
+        return getMax( );
+    }
+
+    private static int getBucketIndex( long lMillis )
+    {
+        return Math.min( BUCKET_COUNT - 1, 64 - Long.numberOfLeadingZeros( lMillis ) );
+    }
+
+    private static long getBucketUpperBound( int nIndex )
+    {
+        return nIndex == 0 ? 0 : ( 1L << nIndex ) - 1;
+    }
+}
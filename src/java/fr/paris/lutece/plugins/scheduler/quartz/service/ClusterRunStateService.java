@@ -0,0 +1,191 @@
+/*
+ * Copyright (c) 2002-2025, City of Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.scheduler.quartz.service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import fr.paris.lutece.plugins.scheduler.quartz.Constants;
+import fr.paris.lutece.plugins.scheduler.quartz.business.FiredTrigger;
+import fr.paris.lutece.plugins.scheduler.quartz.business.FiredTriggerHome;
+import fr.paris.lutece.portal.service.daemon.AppDaemonService;
+import fr.paris.lutece.portal.service.daemon.DaemonEntry;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+/**
+ * Cluster wide view of the running clustered daemons. The executing rows of the qrtz_FIRED_TRIGGERS table are read periodically, so that the cost for
+ * the database does not depend on how often the view is consulted. The in progress flag of the daemon entries is updated accordingly, so that the
+ * daemons screen shows the clustered daemons running on the other nodes.
+ */
+@ApplicationScoped
+public class ClusterRunStateService
+{
+    private Logger _logger = LogManager.getLogger( "lutece.scheduler.quartz" );
+    @ConfigProperty( name = "quartzscheduler.runState.refreshInterval", defaultValue = "5000" )
+    @Inject
+    private long _lRefreshInterval;
+    private String _strSchedulerName;
+    private String _strTablePrefix;
+    private volatile Map<String, List<FiredTrigger>> _mapRunningDaemons = Collections.emptyMap( );
+    private volatile long _lLastRefreshTime;
+    private ScheduledExecutorService _refresher;
+
+    /**
+     * Start following the jobs executing in the clustered scheduler
+     * 
+     * @param strSchedulerName
+     *            the name of the clustered scheduler
+     * @param strTablePrefix
+     *            the Quartz table prefix
+     */
+    public synchronized void start( String strSchedulerName, String strTablePrefix )
+    {
+        _strSchedulerName = strSchedulerName;
+        _strTablePrefix = strTablePrefix;
+        if ( null == _refresher && _lRefreshInterval > 0 )
+        {
+            _refresher = Executors.newSingleThreadScheduledExecutor( runnable -> {
+                Thread thread = new Thread( runnable, "quartz-scheduler-runstate-refresher" );
+                thread.setDaemon( true );
+                return thread;
+            } );
+            _refresher.scheduleWithFixedDelay( this::refresh, 0, _lRefreshInterval, TimeUnit.MILLISECONDS );
+        }
+    }
+
+    @PreDestroy
+    void stop( )
+    {
+        if ( null != _refresher )
+        {
+            _refresher.shutdownNow( );
+        }
+    }
+
+    /**
+     * Check whether a clustered daemon is running on any member of the cluster
+     * 
+     * @param strDaemonId
+     *            the daemon id
+     * @return true if the daemon was running at the last refresh
+     */
+    public boolean isRunning( String strDaemonId )
+    {
+        return _mapRunningDaemons.containsKey( strDaemonId );
+    }
+
+    /**
+     * Get the members of the cluster running a clustered daemon
+     * 
+     * @param strDaemonId
+     *            the daemon id
+     * @return the instance ids, empty if the daemon is not running
+     */
+    public List<String> getRunningInstances( String strDaemonId )
+    {
+        List<String> listInstances = new ArrayList<>( );
+        for ( FiredTrigger firedTrigger : _mapRunningDaemons.getOrDefault( strDaemonId, Collections.emptyList( ) ) )
+        {
+            listInstances.add( firedTrigger.getInstanceName( ) );
+        }
+        return listInstances;
+    }
+
+    /**
+     * Get the running clustered daemons
+     * 
+     * @return the executing fired triggers by daemon id
+     */
+    public Map<String, List<FiredTrigger>> getRunningDaemons( )
+    {
+        return _mapRunningDaemons;
+    }
+
+    /**
+     * @return the time of the last successful refresh in epoch millis, 0 if the view was never loaded
+     */
+    public long getLastRefreshTime( )
+    {
+        return _lLastRefreshTime;
+    }
+
+    void refresh( )
+    {
+        try
+        {
+            Map<String, List<FiredTrigger>> mapRunningDaemons = new HashMap<>( );
+            for ( FiredTrigger firedTrigger : FiredTriggerHome.findExecutingTriggers( _strTablePrefix, _strSchedulerName ) )
+            {
+                if ( Constants.DEFAULT_GROUP.equals( firedTrigger.getJobGroup( ) ) )
+                {
+                    mapRunningDaemons.computeIfAbsent( firedTrigger.getJobName( ), strId -> new ArrayList<>( ) ).add( firedTrigger );
+                }
+            }
+            Set<String> setStopped = new HashSet<>( _mapRunningDaemons.keySet( ) );
+            setStopped.removeAll( mapRunningDaemons.keySet( ) );
+            _mapRunningDaemons = Collections.unmodifiableMap( mapRunningDaemons );
+            _lLastRefreshTime = System.currentTimeMillis( );
+            mapRunningDaemons.keySet( ).forEach( strId -> setInProgress( strId, true ) );
+            setStopped.forEach( strId -> setInProgress( strId, false ) );
+        }
+        catch( Exception e )
+        {
+            // Keep the last known state
+            _logger.error( "Error reading the jobs executing in the cluster", e );
+        }
+    }
+
+    private static void setInProgress( String strDaemonId, boolean bInProgress )
+    {
+        DaemonEntry entry = AppDaemonService.getDaemonEntry( strDaemonId );
+        if ( null != entry )
+        {
+            entry.setInProgress( bInProgress );
+        }
+    }
+}
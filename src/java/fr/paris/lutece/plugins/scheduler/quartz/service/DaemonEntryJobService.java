@@ -33,22 +33,48 @@
  */
 package fr.paris.lutece.plugins.scheduler.quartz.service;
 
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 
 import fr.paris.lutece.plugins.scheduler.quartz.job.JobExecutionResult;
 import fr.paris.lutece.portal.service.daemon.AppDaemonService;
 import fr.paris.lutece.portal.service.daemon.DaemonEntry;
 import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 
+/**
+ * Propagates the job execution results to the daemon entries of all the nodes. When the cache is enabled, the results are coalesced per daemon and
+ * published on a debounce window, so that the cache traffic depends on the number of daemons and not on their fire rate.
+ */
 @ApplicationScoped
 public class DaemonEntryJobService
 {
     private Logger _logger = LogManager.getLogger( "lutece.scheduler.quartz" );
     @Inject
     private QuartzCacheService _cacheService;
+    @ConfigProperty( name = "quartzscheduler.result.logs.maxLength", defaultValue = "10000" )
+    @Inject
+    private int _nLogsMaxLength;
+    @ConfigProperty( name = "quartzscheduler.result.logs.compressionThreshold", defaultValue = "1024" )
+    @Inject
+    private int _nLogsCompressionThreshold;
+    @ConfigProperty( name = "quartzscheduler.result.publish.debounce", defaultValue = "1000" )
+    @Inject
+    private long _lPublishDebounce;
+    private final Map<String, JobExecutionResult> _mapPendingResults = new ConcurrentHashMap<>( );
+    private final AtomicBoolean _bPublishScheduled = new AtomicBoolean( );
+    private ScheduledExecutorService _publisher;
 
     @PostConstruct
     void init( )
@@ -61,13 +87,76 @@ public class DaemonEntryJobService
         {
             _logger.info( "QuartzCacheService not available" );
         }
+        if ( _lPublishDebounce > 0 )
+        {
+            _publisher = Executors.newSingleThreadScheduledExecutor( runnable -> {
+                Thread thread = new Thread( runnable, "quartz-scheduler-result-publisher" );
+                thread.setDaemon( true );
+                return thread;
+            } );
+        }
+    }
+
+    @PreDestroy
+    void destroy( )
+    {
+        if ( null != _publisher )
+        {
+            _publisher.shutdownNow( );
+            publishPendingResults( );
+        }
+    }
+
+    /**
+     * Build the result of a job execution, with the logs truncated and compressed according to the plugin configuration
+     * 
+     * @param strId
+     *            the daemon id
+     * @param lLastRunEndTime
+     *            the end of the run, in epoch millis
+     * @param strLastRunLogs
+     *            the logs of the run
+     * @return the result
+     */
+    public JobExecutionResult createJobExecutionResult( String strId, long lLastRunEndTime, String strLastRunLogs )
+    {
+        return createJobExecutionResult( strId, lLastRunEndTime, strLastRunLogs, false );
+    }
+
+    /**
+     * Build the result of a job execution, with the logs truncated and compressed according to the plugin configuration
+     * 
+     * @param strId
+     *            the daemon id
+     * @param lLastRunEndTime
+     *            the end of the run, in epoch millis
+     * @param strLastRunLogs
+     *            the logs of the run
+     * @param bTimedOut
+     *            true if the run was interrupted after its timeout
+     * @return the result
+     */
+    public JobExecutionResult createJobExecutionResult( String strId, long lLastRunEndTime, String strLastRunLogs, boolean bTimedOut )
+    {
+        return new JobExecutionResult( strId, lLastRunEndTime, strLastRunLogs, _nLogsMaxLength, _nLogsCompressionThreshold, bTimedOut );
     }
 
     public void jobExecuted( JobExecutionResult result )
     {
         if ( null != _cacheService && _cacheService.isCacheEnable( ) )
         {
-            _cacheService.put( result.getId( ), result );
+            if ( null == _publisher )
+            {
+                _cacheService.put( result.getId( ), result );
+                return;
+            }
+            // The local entry is updated right away, the other nodes on the next publication
+            updateDaemonEntry( result );
+            _mapPendingResults.put( result.getId( ), result );
+            if ( _bPublishScheduled.compareAndSet( false, true ) )
+            {
+                _publisher.schedule( this::publishPendingResults, _lPublishDebounce, TimeUnit.MILLISECONDS );
+            }
         }
         else
         {
@@ -76,6 +165,36 @@ public class DaemonEntryJobService
         }
     }
 
+    /**
+     * Publish in a single cache operation the latest result of each daemon executed since the previous publication
+     */
+    void publishPendingResults( )
+    {
+        _bPublishScheduled.set( false );
+        Map<String, JobExecutionResult> mapResults = new HashMap<>( );
+        for ( String strId : _mapPendingResults.keySet( ) )
+        {
+            JobExecutionResult result = _mapPendingResults.remove( strId );
+            if ( null != result )
+            {
+                mapResults.put( strId, result );
+            }
+        }
+        if ( mapResults.isEmpty( ) )
+        {
+            return;
+        }
+        try
+        {
+            _cacheService.putAll( mapResults );
+            _logger.debug( "{} job execution results published", mapResults.size( ) );
+        }
+        catch( Exception e )
+        {
+            _logger.error( "Error publishing the job execution results", e );
+        }
+    }
+
     public void updateDaemonEntry( JobExecutionResult result )
     {
         DaemonEntry entry = AppDaemonService.getDaemonEntry( result.getId( ) );
@@ -0,0 +1,143 @@
+/*
+ * Copyright (c) 2002-2025, City of Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.scheduler.quartz.service;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.quartz.JobKey;
+
+import fr.paris.lutece.plugins.scheduler.quartz.metrics.ExecutionHistory;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+/**
+ * Keeps the last executions of each job run on the local node in an {@link ExecutionHistory} of fixed capacity, so that the run durations and failures
+ * can be analyzed without scraping the logs, with a memory use that stays flat however long the node runs.
+ */
+@ApplicationScoped
+public class ExecutionHistoryService
+{
+    @ConfigProperty( name = "quartzscheduler.history.size", defaultValue = "100" )
+    @Inject
+    private int _nSize;
+    @ConfigProperty( name = "quartzscheduler.history.logsMaxLength", defaultValue = "0" )
+    @Inject
+    private int _nLogsMaxLength;
+    private final Map<JobKey, ExecutionHistory> _mapHistories = new ConcurrentHashMap<>( );
+    private final List<String> _listNodes = new CopyOnWriteArrayList<>( );
+    private final Map<String, Integer> _mapNodeIndexes = new ConcurrentHashMap<>( );
+
+    /**
+     * Record the end of a job execution
+     * 
+     * @param jobKey
+     *            the job key
+     * @param lStartTime
+     *            the fire time, in epoch milliseconds
+     * @param lDuration
+     *            the run duration in milliseconds
+     * @param nStatus
+     *            the status, one of the ExecutionHistory.STATUS_* codes
+     * @param strNode
+     *            the scheduler instance that ran the job
+     * @param strLogs
+     *            the run logs, or null
+     */
+    public void record( JobKey jobKey, long lStartTime, long lDuration, int nStatus, String strNode, String strLogs )
+    {
+        String strKeptLogs = null;
+        if ( _nLogsMaxLength > 0 && null != strLogs )
+        {
+            strKeptLogs = strLogs.length( ) > _nLogsMaxLength ? strLogs.substring( 0, _nLogsMaxLength ) : strLogs;
+        }
+        getOrCreate( jobKey ).record( lStartTime, System.currentTimeMillis( ), lDuration, nStatus, getNodeIndex( strNode ), strKeptLogs );
+    }
+
+    /**
+     * Get the execution history of a job
+     * 
+     * @param jobKey
+     *            the job key
+     * @return the history, or null if the job never ran on this node
+     */
+    public ExecutionHistory getHistory( JobKey jobKey )
+    {
+        return _mapHistories.get( jobKey );
+    }
+
+    /**
+     * Get the execution histories of all the jobs run on this node
+     * 
+     * @return the histories
+     */
+    public Collection<ExecutionHistory> getAllHistories( )
+    {
+        return Collections.unmodifiableCollection( _mapHistories.values( ) );
+    }
+
+    private ExecutionHistory getOrCreate( JobKey jobKey )
+    {
+        ExecutionHistory history = _mapHistories.get( jobKey );
+        if ( null == history )
+        {
+            history = _mapHistories.computeIfAbsent( jobKey, key -> new ExecutionHistory( key.getName( ), Math.max( _nSize, 0 ), _nLogsMaxLength > 0, _listNodes ) );
+        }
+        return history;
+    }
+
+    /**
+     * Get the index of a node in the node table, the table holding the few scheduler instances of the node
+     */
+    private int getNodeIndex( String strNode )
+    {
+        Integer nIndex = _mapNodeIndexes.get( strNode );
+        if ( null == nIndex )
+        {
+            synchronized( _listNodes )
+            {
+                nIndex = _mapNodeIndexes.computeIfAbsent( strNode, key -> {
+                    _listNodes.add( key );
+                    return _listNodes.size( ) - 1;
+                } );
+            }
+        }
+        return nIndex;
+    }
+}
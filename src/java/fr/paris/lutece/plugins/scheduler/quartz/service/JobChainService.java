@@ -0,0 +1,227 @@
+/*
+ * Copyright (c) 2002-2025, City of Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.scheduler.quartz.service;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.quartz.JobKey;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+/**
+ * Dependencies between jobs : a downstream job is requested to run as soon as one of its upstream jobs has run successfully, instead of polling on its
+ * own interval. The requests go through {@link JobSchedulerService#enqueueJob(JobKey, long)}, so that the downstream job runs on the scheduler it is
+ * scheduled on, local or clustered.
+ * <p>
+ * A request made while a requested run of the downstream job is pending is merged into it. A request made while that run is in progress on this node
+ * is replayed once it has completed, so that the data produced meanwhile by the upstream job is not left over.
+ * </p>
+ */
+@ApplicationScoped
+public class JobChainService
+{
+    private Logger _logger = LogManager.getLogger( "lutece.scheduler.quartz" );
+    @Inject
+    private JobSchedulerService _jobSchedulerService;
+    private final Map<JobKey, Set<JobKey>> _mapUpstreamJobs = new ConcurrentHashMap<>( );
+    private final Map<JobKey, Set<JobKey>> _mapDownstreamJobs = new ConcurrentHashMap<>( );
+    private final Set<JobKey> _setRunning = ConcurrentHashMap.newKeySet( );
+    private final Set<JobKey> _setReplays = ConcurrentHashMap.newKeySet( );
+
+    /**
+     * Declare the upstream jobs of a job, replacing its previous dependencies. A dependency that would close a cycle is ignored.
+     * 
+     * @param downstreamJob
+     *            the job to run after its upstream jobs
+     * @param upstreamJobs
+     *            the upstream jobs
+     */
+    public synchronized void register( JobKey downstreamJob, Collection<JobKey> upstreamJobs )
+    {
+        unregister( downstreamJob );
+        Set<JobKey> setUpstreamJobs = new HashSet<>( );
+        for ( JobKey upstreamJob : upstreamJobs )
+        {
+            if ( isReachable( downstreamJob, upstreamJob ) )
+            {
+                _logger.warn( "Dependency of job {} on job {} ignored, it would create a cycle", downstreamJob.getName( ), upstreamJob.getName( ) );
+                continue;
+            }
+            _mapDownstreamJobs.computeIfAbsent( upstreamJob, k -> ConcurrentHashMap.newKeySet( ) ).add( downstreamJob );
+            setUpstreamJobs.add( upstreamJob );
+        }
+        if ( !setUpstreamJobs.isEmpty( ) )
+        {
+            _mapUpstreamJobs.put( downstreamJob, setUpstreamJobs );
+        }
+    }
+
+    /**
+     * Remove the dependencies of a job on its upstream jobs
+     * 
+     * @param downstreamJob
+     *            the job
+     */
+    public synchronized void unregister( JobKey downstreamJob )
+    {
+        Set<JobKey> setUpstreamJobs = _mapUpstreamJobs.remove( downstreamJob );
+        if ( null == setUpstreamJobs )
+        {
+            return;
+        }
+        for ( JobKey upstreamJob : setUpstreamJobs )
+        {
+            Set<JobKey> setDownstreamJobs = _mapDownstreamJobs.get( upstreamJob );
+            if ( null != setDownstreamJobs )
+            {
+                setDownstreamJobs.remove( downstreamJob );
+                if ( setDownstreamJobs.isEmpty( ) )
+                {
+                    _mapDownstreamJobs.remove( upstreamJob );
+                }
+            }
+        }
+        _setReplays.remove( downstreamJob );
+    }
+
+    /**
+     * Get the jobs run after a job
+     * 
+     * @param upstreamJob
+     *            the upstream job
+     * @return the downstream jobs
+     */
+    public Set<JobKey> getDownstreamJobs( JobKey upstreamJob )
+    {
+        Set<JobKey> setDownstreamJobs = _mapDownstreamJobs.get( upstreamJob );
+        return null == setDownstreamJobs ? Collections.emptySet( ) : Collections.unmodifiableSet( setDownstreamJobs );
+    }
+
+    /**
+     * Get the jobs a job is run after
+     * 
+     * @param downstreamJob
+     *            the downstream job
+     * @return the upstream jobs
+     */
+    public Set<JobKey> getUpstreamJobs( JobKey downstreamJob )
+    {
+        Set<JobKey> setUpstreamJobs = _mapUpstreamJobs.get( downstreamJob );
+        return null == setUpstreamJobs ? Collections.emptySet( ) : Collections.unmodifiableSet( setUpstreamJobs );
+    }
+
+    /**
+     * Notify that a job starts running on this node
+     * 
+     * @param jobKey
+     *            the job key
+     */
+    public void jobStarted( JobKey jobKey )
+    {
+        if ( _mapUpstreamJobs.containsKey( jobKey ) )
+        {
+            _setRunning.add( jobKey );
+        }
+    }
+
+    /**
+     * Notify that a job has run on this node. The downstream jobs are requested if the run succeeded, and a run of the job itself is replayed if it was
+     * requested while in progress.
+     * 
+     * @param jobKey
+     *            the job key
+     * @param bSucceeded
+     *            true if the run succeeded
+     */
+    public void jobCompleted( JobKey jobKey, boolean bSucceeded )
+    {
+        _setRunning.remove( jobKey );
+        if ( _setReplays.remove( jobKey ) )
+        {
+            request( jobKey );
+        }
+        if ( bSucceeded )
+        {
+            for ( JobKey downstreamJob : getDownstreamJobs( jobKey ) )
+            {
+                request( downstreamJob );
+            }
+        }
+    }
+
+    private void request( JobKey downstreamJob )
+    {
+        if ( _jobSchedulerService.enqueueJob( downstreamJob, 0 ) )
+        {
+            _logger.debug( "Run of job {} requested", downstreamJob.getName( ) );
+        }
+        else if ( _setRunning.contains( downstreamJob ) )
+        {
+            _setReplays.add( downstreamJob );
+        }
+    }
+
+    /**
+     * Tell whether a job is reached from another by following the downstream dependencies
+     */
+    private boolean isReachable( JobKey from, JobKey to )
+    {
+        Set<JobKey> setVisited = new HashSet<>( );
+        Deque<JobKey> stack = new ArrayDeque<>( );
+        stack.push( from );
+        while ( !stack.isEmpty( ) )
+        {
+            JobKey jobKey = stack.pop( );
+            if ( jobKey.equals( to ) )
+            {
+                return true;
+            }
+            if ( setVisited.add( jobKey ) )
+            {
+                stack.addAll( getDownstreamJobs( jobKey ) );
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,148 @@
+/*
+ * Copyright (c) 2002-2025, City of Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.scheduler.quartz.service;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.quartz.JobKey;
+
+import fr.paris.lutece.plugins.scheduler.quartz.metrics.JobMetrics;
+import jakarta.enterprise.context.ApplicationScoped;
+
+/**
+ * Collects the per job execution metrics (fire lag, run duration, fires, failures and vetoes) of the local node.
+ */
+@ApplicationScoped
+public class JobMetricsService
+{
+    private final Map<JobKey, JobMetrics> _mapMetrics = new ConcurrentHashMap<>( );
+
+    /**
+     * Record a job fire
+     * 
+     * @param jobKey
+     *            the job key
+     * @param lFireLag
+     *            the delay between the scheduled and the actual fire time, in milliseconds
+     */
+    public void recordFire( JobKey jobKey, long lFireLag )
+    {
+        getOrCreate( jobKey ).recordFire( lFireLag );
+    }
+
+    /**
+     * Record the end of a job execution
+     * 
+     * @param jobKey
+     *            the job key
+     * @param lDuration
+     *            the run duration in milliseconds
+     * @param bFailed
+     *            true if the execution ended with an error
+     */
+    public void recordExecution( JobKey jobKey, long lDuration, boolean bFailed )
+    {
+        getOrCreate( jobKey ).recordExecution( lDuration, bFailed );
+    }
+
+    /**
+     * Record a vetoed execution
+     * 
+     * @param jobKey
+     *            the job key
+     */
+    public void recordVeto( JobKey jobKey )
+    {
+        getOrCreate( jobKey ).recordVeto( );
+    }
+
+    /**
+     * Record a misfired trigger, or the deferred replay of a misfired trigger
+     * 
+     * @param jobKey
+     *            the job key
+     * @param bThrottled
+     *            false for a misfire, true if the replay of the misfired fire was deferred to limit the catch-up rate
+     */
+    public void recordMisfire( JobKey jobKey, boolean bThrottled )
+    {
+        getOrCreate( jobKey ).recordMisfire( bThrottled );
+    }
+
+    /**
+     * Record a run interrupted after its timeout
+     * 
+     * @param jobKey
+     *            the job key
+     */
+    public void recordTimeout( JobKey jobKey )
+    {
+        getOrCreate( jobKey ).recordTimeout( );
+    }
+
+    /**
+     * Get the metrics of a job
+     * 
+     * @param jobKey
+     *            the job key
+     * @return the metrics, or null if the job was never fired on this node
+     */
+    public JobMetrics getMetrics( JobKey jobKey )
+    {
+        return _mapMetrics.get( jobKey );
+    }
+
+    /**
+     * Get the metrics of all the jobs fired on this node
+     * 
+     * @return the metrics
+     */
+    public Collection<JobMetrics> getAllMetrics( )
+    {
+        return Collections.unmodifiableCollection( _mapMetrics.values( ) );
+    }
+
+    private JobMetrics getOrCreate( JobKey jobKey )
+    {
+        JobMetrics metrics = _mapMetrics.get( jobKey );
+        if ( null == metrics )
+        {
+            metrics = _mapMetrics.computeIfAbsent( jobKey, key -> new JobMetrics( key.getName( ) ) );
+        }
+        return metrics;
+    }
+}
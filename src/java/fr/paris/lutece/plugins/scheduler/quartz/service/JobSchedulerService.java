@@ -35,49 +35,124 @@ package fr.paris.lutece.plugins.scheduler.quartz.service;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.quartz.CronTrigger;
 import org.quartz.JobDetail;
 import org.quartz.JobKey;
+import org.quartz.ObjectAlreadyExistsException;
 import org.quartz.Scheduler;
 import org.quartz.SchedulerException;
 import org.quartz.SchedulerFactory;
+import org.quartz.SimpleTrigger;
 import org.quartz.Trigger;
+import org.quartz.TriggerBuilder;
+import org.quartz.TriggerKey;
 import org.quartz.impl.StdSchedulerFactory;
+import org.quartz.impl.matchers.GroupMatcher;
+import org.quartz.simpl.SimpleThreadPool;
 
 import fr.paris.lutece.plugins.scheduler.quartz.Constants;
+import fr.paris.lutece.plugins.scheduler.quartz.DaemonProperties;
 import fr.paris.lutece.plugins.scheduler.quartz.job.DaemonEntryJobListener;
+import fr.paris.lutece.plugins.scheduler.quartz.job.LeaseTriggerListener;
 import fr.paris.lutece.plugins.scheduler.quartz.job.LuteceJobFactory;
+import fr.paris.lutece.plugins.scheduler.quartz.job.MisfireTriggerListener;
+import fr.paris.lutece.plugins.scheduler.quartz.job.PartitionTriggerListener;
+import fr.paris.lutece.plugins.scheduler.quartz.metrics.LaneStatus;
+import fr.paris.lutece.plugins.scheduler.quartz.utils.AdaptiveThreadPoolTriggerListener;
+import fr.paris.lutece.plugins.scheduler.quartz.utils.LoadAwareJobStore;
 import fr.paris.lutece.portal.service.init.WebConfResourceLocator;
+import fr.paris.lutece.portal.service.util.AppPropertiesService;
 import io.github.classgraph.ResourceList;
 import jakarta.annotation.PostConstruct;
 import jakarta.annotation.Priority;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.enterprise.context.Destroyed;
+import jakarta.enterprise.context.Initialized;
 import jakarta.enterprise.event.Observes;
 import jakarta.enterprise.inject.spi.CDI;
 import jakarta.inject.Inject;
 import jakarta.servlet.ServletContext;
 
 /**
- * JobSchedulerService. Manages the creation and lifecycle of the two Quartz scheduler (local and clustered) based on the plugin configuration.
+ * JobSchedulerService. Manages the creation and lifecycle of the two Quartz scheduler (local and clustered) based on the plugin configuration, and of the
+ * optional execution lanes : local schedulers with their own thread pool, dedicated to some daemons.
  */
 @ApplicationScoped
 public class JobSchedulerService
 {
     private static final String LOCAL_SCHEDULER_PROPERTIES_FILENAME = "**quartz-local.properties";
     private static final String CLUSTERED_SCHEDULER_PROPERTIES_FILENAME = "**quartz-cluster.properties";
+    private static final String PROPERTY_TABLE_PREFIX = "org.quartz.jobStore.tablePrefix";
+    private static final String DEFAULT_TABLE_PREFIX = "QRTZ_";
+    private static final String PROPERTY_INSTANCE_NAME = "org.quartz.scheduler.instanceName";
+    private static final String PROPERTY_THREAD_POOL_PREFIX = "org.quartz.threadPool.";
+    private static final String PROPERTY_THREAD_POOL_CLASS = "org.quartz.threadPool.class";
+    private static final String PROPERTY_THREAD_COUNT = "org.quartz.threadPool.threadCount";
+    private static final String LANE_SCHEDULER_NAME_SEPARATOR = "_";
+    private static final long STARTUP_SHUTDOWN_TIMEOUT = 30;
+    private static final long RUNNING_JOB_POLL_INTERVAL = 100;
+    private static final String ENQUEUED_TRIGGER_SUFFIX = "_enqueued";
 
     private Logger _logger = LogManager.getLogger( "lutece.scheduler.quartz" );
     @ConfigProperty( name = "quartzscheduler.cluster.enable", defaultValue = "false" )
     @Inject
     private boolean _clusterEnabled;
-    private Scheduler _localScheduler;
-    private Scheduler _clusteredScheduler;
+    @ConfigProperty( name = "quartzscheduler.startup.batch.enable", defaultValue = "true" )
+    @Inject
+    private boolean _startupBatchEnabled;
+    @ConfigProperty( name = "quartzscheduler.startup.async.clustered", defaultValue = "true" )
+    @Inject
+    private boolean _asyncClusteredStartup;
+    @ConfigProperty( name = "quartzscheduler.startup.async.local", defaultValue = "false" )
+    @Inject
+    private boolean _asyncLocalStartup;
+    @ConfigProperty( name = "quartzscheduler.misfire.maxReplaysPerSecond", defaultValue = "0" )
+    @Inject
+    private int _nMaxMisfireReplaysPerSecond;
+    @Inject
+    private PartitionService _partitionService;
+    @Inject
+    private ClusterRunStateService _clusterRunStateService;
+    @Inject
+    private LeaseService _leaseService;
+    @Inject
+    private JobMetricsService _jobMetricsService;
+    private volatile Scheduler _localScheduler;
+    private volatile Scheduler _clusteredScheduler;
+    private volatile Map<String, Scheduler> _mapLaneSchedulers = Collections.emptyMap( );
+    private Properties _localProperties;
+    private Properties _clusterProperties;
+    private Map<String, Integer> _mapLaneThreadCounts = Collections.emptyMap( );
+    private volatile boolean _bLocalStarting;
+    private volatile boolean _bClusteredStarting;
+    private ExecutorService _startupExecutor;
+    private MisfireTriggerListener _misfireTriggerListener;
+    private final LuteceJobFactory _jobFactory = new LuteceJobFactory( );
+    private final Object _batchLock = new Object( );
+    private boolean _bBatchOpen;
+    private Map<JobKey, Map.Entry<JobDetail, Trigger>> _mapPendingJobs;
+    // Scheduler holding each job, to trigger or delete it without probing the JDBC store
+    private final Map<JobKey, Scheduler> _mapJobRoutes = new ConcurrentHashMap<>( );
 
     JobSchedulerService( )
     {
@@ -86,38 +161,365 @@ public class JobSchedulerService
 
     @PostConstruct
     void initJobSchedulerService( )
+    {
+        if ( _startupBatchEnabled )
+        {
+            beginBatch( );
+        }
+        _misfireTriggerListener = new MisfireTriggerListener( _jobMetricsService, _nMaxMisfireReplaysPerSecond, this::enqueueJob );
+        // The configuration files are read from the webapp class loader, on the startup thread
+        Properties localProperties = loadProperties( LOCAL_SCHEDULER_PROPERTIES_FILENAME );
+        Properties clusterProperties = _clusterEnabled ? loadProperties( CLUSTERED_SCHEDULER_PROPERTIES_FILENAME ) : null;
+        _bLocalStarting = true;
+        _bClusteredStarting = _clusterEnabled;
+        if ( _asyncLocalStartup || ( _clusterEnabled && _asyncClusteredStartup ) )
+        {
+            ClassLoader classLoader = Thread.currentThread( ).getContextClassLoader( );
+            _startupExecutor = Executors.newFixedThreadPool( 2, runnable -> {
+                Thread thread = new Thread( runnable, "quartz-scheduler-startup" );
+                thread.setDaemon( true );
+                thread.setContextClassLoader( classLoader );
+                return thread;
+            } );
+        }
+        startSchedulers( ( ) -> startLocalSchedulers( localProperties ), _asyncLocalStartup );
+        if ( _clusterEnabled )
+        {
+            startSchedulers( ( ) -> startClusteredScheduler( clusterProperties ), _asyncClusteredStartup );
+        }
+    }
+
+    /**
+     * Start schedulers on the startup thread, or in the background. The jobs scheduled meanwhile are kept pending and scheduled once their scheduler has
+     * started.
+     */
+    private void startSchedulers( Runnable startup, boolean bAsync )
+    {
+        if ( bAsync )
+        {
+            _startupExecutor.execute( startup );
+        }
+        else
+        {
+            startup.run( );
+        }
+    }
+
+    private void startLocalSchedulers( Properties localProperties )
     {
         try
         {
-            Properties localProperties = loadProperties( LOCAL_SCHEDULER_PROPERTIES_FILENAME );
-            SchedulerFactory factory = new StdSchedulerFactory( localProperties );
-            _localScheduler = factory.getScheduler( );
-            _localScheduler.setJobFactory( new LuteceJobFactory( ) );
-            _localScheduler.getListenerManager( ).addJobListener( new DaemonEntryJobListener( ) );
-            _localScheduler.start( );
+            Scheduler localScheduler = createLocalScheduler( localProperties );
+            localScheduler.start( );
+            _localScheduler = localScheduler;
             _logger.info( "Lutece local job scheduler started." );
         }
         catch( SchedulerException e )
         {
             _logger.error( "Error starting the Lutece local job scheduler ", e );
         }
+        _mapLaneSchedulers = initLanes( localProperties );
+        _localProperties = localProperties;
+        _mapLaneThreadCounts = DaemonProperties.getLaneThreadCounts( );
+        _bLocalStarting = false;
+        flushPendingJobs( false );
+    }
+
+    private void startClusteredScheduler( Properties clusterProperties )
+    {
         try
         {
-            if ( _clusterEnabled )
+            SchedulerFactory clusteredFactory = new StdSchedulerFactory( clusterProperties );
+            Scheduler clusteredScheduler = clusteredFactory.getScheduler( );
+            clusteredScheduler.setJobFactory( _jobFactory );
+            clusteredScheduler.getListenerManager( ).addJobListener( new DaemonEntryJobListener( ) );
+            clusteredScheduler.getListenerManager( ).addTriggerListener( _misfireTriggerListener );
+            AdaptiveThreadPoolTriggerListener.register( clusteredScheduler );
+            LoadAwareJobStore.register( clusteredScheduler );
+            clusteredScheduler.start( );
+            _clusteredScheduler = clusteredScheduler;
+            _logger.info( "Lutece clustered job scheduler started." );
+            String strTablePrefix = clusterProperties.getProperty( PROPERTY_TABLE_PREFIX, DEFAULT_TABLE_PREFIX );
+            _partitionService.start( clusteredScheduler.getSchedulerName( ), clusteredScheduler.getSchedulerInstanceId( ), strTablePrefix );
+            _clusterRunStateService.start( clusteredScheduler.getSchedulerName( ), strTablePrefix );
+            _clusterProperties = clusterProperties;
+        }
+        catch( SchedulerException e )
+        {
+            _logger.error( "Error starting the Lutece clustered job scheduler ", e );
+        }
+        _bClusteredStarting = false;
+        flushPendingJobs( false );
+    }
+
+    private Scheduler createLocalScheduler( Properties properties ) throws SchedulerException
+    {
+        SchedulerFactory factory = new StdSchedulerFactory( properties );
+        Scheduler scheduler = factory.getScheduler( );
+        scheduler.setJobFactory( _jobFactory );
+        scheduler.getListenerManager( ).addJobListener( new DaemonEntryJobListener( ) );
+        scheduler.getListenerManager( ).addTriggerListener( new PartitionTriggerListener( _partitionService ) );
+        scheduler.getListenerManager( ).addTriggerListener( _misfireTriggerListener );
+        // The lease is taken last, once the other listeners have not vetoed the fire
+        scheduler.getListenerManager( ).addTriggerListener( new LeaseTriggerListener( _leaseService, _misfireTriggerListener ) );
+        AdaptiveThreadPoolTriggerListener.register( scheduler );
+        return scheduler;
+    }
+
+    /**
+     * Start a local scheduler for each lane declared in the plugin properties. A lane scheduler uses the local scheduler configuration with its own fixed
+     * thread pool.
+     */
+    private Map<String, Scheduler> initLanes( Properties localProperties )
+    {
+        Map<String, Scheduler> mapLaneSchedulers = new LinkedHashMap<>( );
+        if ( null == localProperties )
+        {
+            return mapLaneSchedulers;
+        }
+        for ( Map.Entry<String, Integer> lane : DaemonProperties.getLaneThreadCounts( ).entrySet( ) )
+        {
+            String strLaneName = lane.getKey( );
+            Properties laneProperties = new Properties( );
+            localProperties.stringPropertyNames( ).stream( ).filter( name -> !name.startsWith( PROPERTY_THREAD_POOL_PREFIX ) )
+                    .forEach( name -> laneProperties.setProperty( name, localProperties.getProperty( name ) ) );
+            laneProperties.setProperty( PROPERTY_INSTANCE_NAME,
+                    localProperties.getProperty( PROPERTY_INSTANCE_NAME ) + LANE_SCHEDULER_NAME_SEPARATOR + strLaneName );
+            laneProperties.setProperty( PROPERTY_THREAD_POOL_CLASS, SimpleThreadPool.class.getName( ) );
+            laneProperties.setProperty( PROPERTY_THREAD_COUNT, String.valueOf( lane.getValue( ) ) );
+            try
+            {
+                Scheduler laneScheduler = createLocalScheduler( laneProperties );
+                laneScheduler.start( );
+                mapLaneSchedulers.put( strLaneName, laneScheduler );
+                _logger.info( "Lutece job scheduler started for lane {}.", strLaneName );
+            }
+            catch( SchedulerException e )
             {
-                Properties clusterProperties = loadProperties( CLUSTERED_SCHEDULER_PROPERTIES_FILENAME );
-                SchedulerFactory clusteredFactory = new StdSchedulerFactory( clusterProperties );
-                _clusteredScheduler = clusteredFactory.getScheduler( );
-                _clusteredScheduler.setJobFactory( new LuteceJobFactory( ) );
-                _clusteredScheduler.getListenerManager( ).addJobListener( new DaemonEntryJobListener( ) );
-                _clusteredScheduler.start( );
-                _logger.info( "Lutece clustered job scheduler started." );
+                _logger.error( "Error starting the Lutece job scheduler of lane {}", strLaneName, e );
+            }
+        }
+        return mapLaneSchedulers;
+    }
+
+    /**
+     * Get the local scheduler of a job : the scheduler of its lane, or the default local scheduler
+     */
+    private Scheduler getLocalScheduler( JobDetail job )
+    {
+        String strLane = (String) job.getJobDataMap( ).get( Constants.DAEMON_LANE_JOB_MAP_KEY );
+        if ( null != strLane )
+        {
+            Scheduler laneScheduler = _mapLaneSchedulers.get( strLane );
+            if ( null != laneScheduler )
+            {
+                return laneScheduler;
+            }
+            _logger.warn( "Unknown lane {} for job {}, the default local scheduler is used", strLane, job.getKey( ).getName( ) );
+        }
+        return _localScheduler;
+    }
+
+    /**
+     * Get all the local schedulers : the default one and the lanes
+     */
+    private List<Scheduler> getLocalSchedulers( )
+    {
+        List<Scheduler> listSchedulers = new ArrayList<>( _mapLaneSchedulers.size( ) + 1 );
+        if ( null != _localScheduler )
+        {
+            listSchedulers.add( _localScheduler );
+        }
+        listSchedulers.addAll( _mapLaneSchedulers.values( ) );
+        return listSchedulers;
+    }
+
+    /**
+     * Apply the changes of the scheduler configuration files and of the lanes without restarting the webapp. The local schedulers are rebuilt if their
+     * configuration has changed, once their running jobs have completed, with their jobs and their pending triggers. The clustered scheduler is restarted if its configuration has changed, once its
+     * running jobs have completed, its triggers being kept in the job store.
+     */
+    public synchronized void reloadSchedulers( )
+    {
+        flushBatch( );
+        Properties localProperties = loadProperties( LOCAL_SCHEDULER_PROPERTIES_FILENAME );
+        if ( null != localProperties && null != _localScheduler
+                && ( !localProperties.equals( _localProperties ) || !DaemonProperties.getLaneThreadCounts( ).equals( _mapLaneThreadCounts ) ) )
+        {
+            reloadLocalSchedulers( localProperties );
+        }
+        if ( _clusterEnabled && null != _clusteredScheduler )
+        {
+            Properties clusterProperties = loadProperties( CLUSTERED_SCHEDULER_PROPERTIES_FILENAME );
+            if ( null != clusterProperties && !clusterProperties.equals( _clusterProperties ) )
+            {
+                reloadClusteredScheduler( clusterProperties );
+            }
+        }
+    }
+
+    /**
+     * Replace the local schedulers and the lanes. The jobs are moved to the new schedulers with their triggers, including the requested runs, each trigger
+     * going on from its next fire time. The old schedulers are stopped once their running jobs have completed, so that a job never runs on both the old
+     * and the new scheduler. The new schedulers can only be created once the old ones, which have the same names, are stopped.
+     */
+    private void reloadLocalSchedulers( Properties localProperties )
+    {
+        List<Scheduler> listOldSchedulers = getLocalSchedulers( );
+        Map<JobDetail, Set<? extends Trigger>> mapJobs = new LinkedHashMap<>( );
+        _bLocalStarting = true;
+        try
+        {
+            for ( Scheduler scheduler : listOldSchedulers )
+            {
+                scheduler.standby( );
+                mapJobs.putAll( getJobs( scheduler ) );
+            }
+            for ( Scheduler scheduler : listOldSchedulers )
+            {
+                int nRunningJobs = scheduler.getCurrentlyExecutingJobs( ).size( );
+                if ( nRunningJobs > 0 )
+                {
+                    _logger.info( "Waiting for {} running jobs of {} to complete before reloading it", nRunningJobs, scheduler.getSchedulerName( ) );
+                }
+                scheduler.shutdown( true );
             }
         }
         catch( SchedulerException e )
         {
-            _logger.error( "Error starting the Lutece clustered job scheduler ", e );
+            _logger.error( "Error stopping the Lutece local job schedulers for reload", e );
+        }
+        _mapJobRoutes.values( ).removeIf( listOldSchedulers::contains );
+        _localScheduler = null;
+        _mapLaneSchedulers = Collections.emptyMap( );
+        startLocalSchedulers( localProperties );
+
+        // The jobs scheduled while the schedulers were reloading have been scheduled with their new definition
+        Map<Scheduler, Map<JobDetail, Set<? extends Trigger>>> mapLocalJobs = new HashMap<>( );
+        for ( Map.Entry<JobDetail, Set<? extends Trigger>> job : mapJobs.entrySet( ) )
+        {
+            Scheduler localScheduler = getLocalScheduler( job.getKey( ) );
+            if ( null != localScheduler && !_mapJobRoutes.containsKey( job.getKey( ).getKey( ) ) )
+            {
+                mapLocalJobs.computeIfAbsent( localScheduler, scheduler -> new HashMap<>( ) ).put( job.getKey( ), job.getValue( ) );
+            }
+        }
+        mapLocalJobs.forEach( this::scheduleLocalJobs );
+        _logger.info( "Lutece local job schedulers reloaded with {} jobs", mapJobs.size( ) );
+    }
+
+    /**
+     * Restart the clustered scheduler with a new configuration. The routes of the clustered jobs are restored once the new scheduler has started, their
+     * jobs being kept in the job store.
+     */
+    private void reloadClusteredScheduler( Properties clusterProperties )
+    {
+        Scheduler oldScheduler = _clusteredScheduler;
+        List<JobKey> listRoutedJobs = new ArrayList<>( );
+        _mapJobRoutes.forEach( ( jobKey, scheduler ) -> {
+            if ( scheduler == oldScheduler )
+            {
+                listRoutedJobs.add( jobKey );
+            }
+        } );
+        _bClusteredStarting = true;
+        try
+        {
+            // The triggers are kept in the job store, the running jobs complete before the scheduler stops
+            oldScheduler.shutdown( true );
+        }
+        catch( SchedulerException e )
+        {
+            _logger.error( "Error stopping the Lutece clustered job scheduler for reload", e );
+        }
+        _mapJobRoutes.values( ).removeIf( scheduler -> scheduler == oldScheduler );
+        _clusteredScheduler = null;
+        startClusteredScheduler( clusterProperties );
+        Scheduler newScheduler = _clusteredScheduler;
+        if ( null == newScheduler )
+        {
+            return;
+        }
+        try
+        {
+            for ( JobKey jobKey : listRoutedJobs )
+            {
+                if ( newScheduler.checkExists( jobKey ) )
+                {
+                    _mapJobRoutes.putIfAbsent( jobKey, newScheduler );
+                }
+            }
+        }
+        catch( SchedulerException e )
+        {
+            _logger.error( "Error restoring the routes of the clustered jobs", e );
+        }
+    }
+
+    /**
+     * Get the jobs of a scheduler with their triggers. The triggers are rebuilt to start at their next fire time, so that their schedule goes on in
+     * another scheduler.
+     */
+    private static Map<JobDetail, Set<? extends Trigger>> getJobs( Scheduler scheduler ) throws SchedulerException
+    {
+        Map<JobDetail, Set<? extends Trigger>> mapJobs = new LinkedHashMap<>( );
+        for ( JobKey jobKey : scheduler.getJobKeys( GroupMatcher.anyJobGroup( ) ) )
+        {
+            JobDetail job = scheduler.getJobDetail( jobKey );
+            Set<Trigger> setTriggers = new HashSet<>( );
+            for ( Trigger trigger : scheduler.getTriggersOfJob( jobKey ) )
+            {
+                if ( null != trigger.getNextFireTime( ) )
+                {
+                    setTriggers.add( resumeTrigger( trigger ) );
+                }
+            }
+            if ( null != job && !setTriggers.isEmpty( ) )
+            {
+                mapJobs.put( job, setTriggers );
+            }
         }
+        return mapJobs;
+    }
+
+    private static Trigger resumeTrigger( Trigger trigger )
+    {
+        return trigger.getTriggerBuilder( ).startAt( trigger.getNextFireTime( ) ).build( );
+    }
+
+    /**
+     * Get the status of the execution lanes
+     * 
+     * @return the status of each lane
+     */
+    public List<LaneStatus> getLaneStatuses( )
+    {
+        List<LaneStatus> listStatuses = new ArrayList<>( );
+        long lNow = System.currentTimeMillis( );
+        for ( Map.Entry<String, Scheduler> lane : _mapLaneSchedulers.entrySet( ) )
+        {
+            Scheduler scheduler = lane.getValue( );
+            try
+            {
+                int nPoolSize = scheduler.getMetaData( ).getThreadPoolSize( );
+                int nExecuting = scheduler.getCurrentlyExecutingJobs( ).size( );
+                int nQueued = 0;
+                for ( TriggerKey triggerKey : scheduler.getTriggerKeys( GroupMatcher.anyTriggerGroup( ) ) )
+                {
+                    Trigger trigger = scheduler.getTrigger( triggerKey );
+                    if ( null != trigger && null != trigger.getNextFireTime( ) && trigger.getNextFireTime( ).getTime( ) <= lNow )
+                    {
+                        nQueued++;
+                    }
+                }
+                listStatuses.add( new LaneStatus( lane.getKey( ), nPoolSize, nExecuting, nQueued ) );
+            }
+            catch( SchedulerException e )
+            {
+                _logger.error( "Error reading the status of lane {}", lane.getKey( ), e );
+            }
+        }
+        return listStatuses;
     }
 
     private Properties loadProperties( String strSchedulerFileName )
@@ -167,13 +569,27 @@ public class JobSchedulerService
      *            The Job to schedule
      * @param trigger
      *            The Cron trigger
-     * @return Date
+     * @return Date the first fire time, or null if the job was not scheduled yet because a batch is in progress or its scheduler is still starting
      */
     public Date scheduleJob( JobDetail job, Trigger trigger )
     {
+        _jobFactory.prepare( job );
+        synchronized( _batchLock )
+        {
+            if ( _bBatchOpen || isSchedulerStarting( job ) )
+            {
+                if ( null == _mapPendingJobs )
+                {
+                    _mapPendingJobs = new LinkedHashMap<>( );
+                }
+                _mapPendingJobs.put( job.getKey( ), Map.entry( job, trigger ) );
+                _logger.debug( "Job scheduling deferred : {}", job.getKey( ).getName( ) );
+                return null;
+            }
+        }
         Date date = null;
-        boolean clustered = Boolean.parseBoolean( (String) job.getJobDataMap( ).get( Constants.DAEMON_CLUSTERED_JOB_MAP_KEY ) );
-        
+        boolean clustered = isClustered( job );
+
         if ( _clusterEnabled && clustered && _clusteredScheduler != null )
         {
             try
@@ -183,6 +599,7 @@ public class JobSchedulerService
                     date = _clusteredScheduler.scheduleJob( job, trigger );
                     _logger.info( "New clustered job scheduled : {}", job.getKey( ).getName( ) );
                 }
+                _mapJobRoutes.put( job.getKey( ), _clusteredScheduler );
             }
             catch( SchedulerException e )
             {
@@ -191,11 +608,13 @@ public class JobSchedulerService
         }
         else
         {
-            if ( _localScheduler != null )
+            Scheduler localScheduler = getLocalScheduler( job );
+            if ( localScheduler != null )
             {
                 try
                 {
-                    date = _localScheduler.scheduleJob( job, trigger );
+                    date = localScheduler.scheduleJob( job, trigger );
+                    _mapJobRoutes.put( job.getKey( ), localScheduler );
                     _logger.info( "New local job scheduled : {}", job.getKey( ).getName( ) );
                 }
                 catch( SchedulerException e )
@@ -207,17 +626,162 @@ public class JobSchedulerService
         return date;
     }
 
+    /**
+     * Start collecting the jobs to schedule. The jobs given to {@link #scheduleJob(JobDetail, Trigger)} are kept until {@link #flushBatch()} is called, and
+     * then submitted with a single call per scheduler.
+     */
+    public void beginBatch( )
+    {
+        synchronized( _batchLock )
+        {
+            _bBatchOpen = true;
+        }
+    }
+
+    /**
+     * Schedule all the jobs collected since {@link #beginBatch()} and go back to immediate scheduling. With the JDBC store, the clustered jobs are registered
+     * in a single transaction instead of one transaction per job. The jobs of a scheduler still starting stay pending until it has started.
+     */
+    public void flushBatch( )
+    {
+        flushPendingJobs( true );
+    }
+
+    /**
+     * Schedule the pending jobs whose scheduler has started
+     * 
+     * @param bCloseBatch
+     *            true to end the current batch, false to keep the pending jobs while a batch is in progress
+     */
+    private void flushPendingJobs( boolean bCloseBatch )
+    {
+        Map<Scheduler, Map<JobDetail, Set<? extends Trigger>>> mapLocalJobs = new HashMap<>( );
+        Map<JobDetail, Set<? extends Trigger>> mapClusteredJobs = new HashMap<>( );
+        synchronized( _batchLock )
+        {
+            if ( bCloseBatch )
+            {
+                _bBatchOpen = false;
+            }
+            if ( _bBatchOpen || null == _mapPendingJobs )
+            {
+                return;
+            }
+            Iterator<Map.Entry<JobDetail, Trigger>> iterator = _mapPendingJobs.values( ).iterator( );
+            while ( iterator.hasNext( ) )
+            {
+                Map.Entry<JobDetail, Trigger> pendingJob = iterator.next( );
+                JobDetail job = pendingJob.getKey( );
+                if ( isSchedulerStarting( job ) )
+                {
+                    continue;
+                }
+                iterator.remove( );
+                if ( _clusterEnabled && isClustered( job ) && _clusteredScheduler != null )
+                {
+                    mapClusteredJobs.put( job, Collections.singleton( pendingJob.getValue( ) ) );
+                }
+                else
+                {
+                    Scheduler localScheduler = getLocalScheduler( job );
+                    if ( null != localScheduler )
+                    {
+                        mapLocalJobs.computeIfAbsent( localScheduler, scheduler -> new HashMap<>( ) ).put( job,
+                                Collections.singleton( pendingJob.getValue( ) ) );
+                    }
+                }
+            }
+            if ( _mapPendingJobs.isEmpty( ) )
+            {
+                _mapPendingJobs = null;
+            }
+        }
+        scheduleClusteredJobs( mapClusteredJobs );
+        mapLocalJobs.forEach( this::scheduleLocalJobs );
+    }
+
+    private void scheduleClusteredJobs( Map<JobDetail, Set<? extends Trigger>> mapJobs )
+    {
+        if ( mapJobs.isEmpty( ) )
+        {
+            return;
+        }
+        try
+        {
+            // Jobs already registered in the JDBC store by another node are kept as is
+            Set<JobKey> existingKeys = _clusteredScheduler.getJobKeys( GroupMatcher.jobGroupEquals( Constants.DEFAULT_GROUP ) );
+            int nRequested = mapJobs.size( );
+            mapJobs.keySet( ).stream( ).filter( job -> existingKeys.contains( job.getKey( ) ) )
+                    .forEach( job -> _mapJobRoutes.put( job.getKey( ), _clusteredScheduler ) );
+            mapJobs.keySet( ).removeIf( job -> existingKeys.contains( job.getKey( ) ) );
+            if ( !mapJobs.isEmpty( ) )
+            {
+                _clusteredScheduler.scheduleJobs( mapJobs, false );
+                mapJobs.keySet( ).forEach( job -> _mapJobRoutes.put( job.getKey( ), _clusteredScheduler ) );
+            }
+            _logger.info( "{} new clustered jobs scheduled, {} already registered", mapJobs.size( ), nRequested - mapJobs.size( ) );
+        }
+        catch( SchedulerException e )
+        {
+            _logger.error( "Error scheduling clustered jobs in batch, falling back to one by one scheduling", e );
+            mapJobs.forEach( ( job, triggers ) -> scheduleJob( job, triggers.iterator( ).next( ) ) );
+        }
+    }
+
+    private void scheduleLocalJobs( Scheduler localScheduler, Map<JobDetail, Set<? extends Trigger>> mapJobs )
+    {
+        try
+        {
+            localScheduler.scheduleJobs( mapJobs, true );
+            mapJobs.keySet( ).forEach( job -> _mapJobRoutes.put( job.getKey( ), localScheduler ) );
+            _logger.info( "{} new local jobs scheduled on {}", mapJobs.size( ), localScheduler.getSchedulerName( ) );
+        }
+        catch( SchedulerException e )
+        {
+            _logger.error( "Error scheduling local jobs in batch, falling back to one by one scheduling", e );
+            mapJobs.forEach( ( job, triggers ) -> scheduleJob( job, triggers.iterator( ).next( ) ) );
+        }
+    }
+
+    /**
+     * Check whether the scheduler of a job is still starting
+     */
+    private boolean isSchedulerStarting( JobDetail job )
+    {
+        return ( _clusterEnabled && isClustered( job ) ) ? _bClusteredStarting : _bLocalStarting;
+    }
+
+    private static boolean isClustered( JobDetail job )
+    {
+        return Boolean.parseBoolean( (String) job.getJobDataMap( ).get( Constants.DAEMON_CLUSTERED_JOB_MAP_KEY ) );
+    }
+
     public void unscheduleJob( String jobId )
     {
+        _jobFactory.invalidate( new JobKey( jobId, Constants.DEFAULT_GROUP ) );
+        synchronized( _batchLock )
+        {
+            if ( null != _mapPendingJobs )
+            {
+                _mapPendingJobs.remove( new JobKey( jobId, Constants.DEFAULT_GROUP ) );
+            }
+        }
+        JobKey jobKey = new JobKey( jobId, Constants.DEFAULT_GROUP );
         try
         {
-            if ( _localScheduler != null )
+            Scheduler scheduler = _mapJobRoutes.remove( jobKey );
+            if ( null != scheduler )
             {
-                _localScheduler.deleteJob( new JobKey( jobId, Constants.DEFAULT_GROUP ) );
+                scheduler.deleteJob( jobKey );
+                return;
+            }
+            for ( Scheduler localScheduler : getLocalSchedulers( ) )
+            {
+                localScheduler.deleteJob( jobKey );
             }
             if ( _clusteredScheduler != null )
             {
-                _clusteredScheduler.deleteJob( new JobKey( jobId, Constants.DEFAULT_GROUP ) );
+                _clusteredScheduler.deleteJob( jobKey );
             }
         }
         catch( SchedulerException e )
@@ -226,57 +790,320 @@ public class JobSchedulerService
         }
     }
 
-    public Date executeJob( JobKey jobKey )
+    /**
+     * Tell whether a job is scheduled on this node, or waiting to be scheduled
+     * 
+     * @param jobKey
+     *            the job key
+     * @return true if the job is scheduled
+     */
+    public boolean isScheduled( JobKey jobKey )
     {
-        Date date = null;
+        synchronized( _batchLock )
+        {
+            if ( null != _mapPendingJobs && _mapPendingJobs.containsKey( jobKey ) )
+            {
+                return true;
+            }
+        }
+        return _mapJobRoutes.containsKey( jobKey );
+    }
+
+    /**
+     * Apply a new definition of a scheduled job. The job goes on with its schedule if its definition and its scheduler are unchanged. Otherwise it is
+     * replaced, on its new scheduler, and its requested runs are moved along. A job moving to another scheduler is paused and moved once its run in
+     * progress on this node has completed, so that it never runs on both schedulers.
+     * <p>
+     * A clustered job is shared by all the nodes through the job store : replacing it deletes it for every node, and moving it to a local scheduler stops
+     * its clustered runs on the whole cluster. The nodes must therefore reload the same configuration, the definition of the last node to reload being
+     * the one kept in the job store.
+     * </p>
+     * 
+     * @param job
+     *            the job
+     * @param trigger
+     *            the trigger
+     * @return the first fire time, or null if the job was left unchanged or could not be scheduled yet
+     */
+    public Date rescheduleJob( JobDetail job, Trigger trigger )
+    {
+        JobKey jobKey = job.getKey( );
         try
         {
-            if ( _localScheduler != null )
+            Scheduler scheduler = findScheduler( jobKey );
+            if ( null == scheduler )
+            {
+                return scheduleJob( job, trigger );
+            }
+            Scheduler targetScheduler = ( _clusterEnabled && isClustered( job ) && null != _clusteredScheduler ) ? _clusteredScheduler : getLocalScheduler( job );
+            if ( scheduler == targetScheduler && isUnchanged( scheduler, job, trigger ) )
+            {
+                return null;
+            }
+            if ( scheduler != targetScheduler )
+            {
+                // The concurrent execution of a job is only prevented within a scheduler
+                scheduler.pauseJob( jobKey );
+                waitForRunningJob( scheduler, jobKey );
+            }
+            Trigger currentTrigger = scheduler.getTrigger( trigger.getKey( ) );
+            JobDetail currentJob = scheduler.getJobDetail( jobKey );
+            Trigger newTrigger = trigger;
+            if ( hasSameSchedule( currentTrigger, trigger ) && null != currentTrigger.getNextFireTime( ) && null != currentJob
+                    && Objects.equals( currentJob.getJobDataMap( ).get( Constants.DAEMON_EXCLUSIVE_JOB_MAP_KEY ),
+                            job.getJobDataMap( ).get( Constants.DAEMON_EXCLUSIVE_JOB_MAP_KEY ) ) )
+            {
+                // Only the job definition, the routing or the misfire policy has changed : the schedule goes on with its phase. An exclusive daemon
+                // keeps the fire times shared by all the nodes.
+                newTrigger = trigger.getTriggerBuilder( ).startAt( currentTrigger.getNextFireTime( ) ).build( );
+            }
+            List<Trigger> listRequestedRuns = new ArrayList<>( );
+            for ( Trigger requestedRun : scheduler.getTriggersOfJob( jobKey ) )
             {
-                JobDetail jobDetail = _localScheduler.getJobDetail( jobKey );
-                if ( null != jobDetail )
+                if ( Scheduler.DEFAULT_MANUAL_TRIGGERS.equals( requestedRun.getKey( ).getGroup( ) ) && null != requestedRun.getNextFireTime( ) )
                 {
-                    _localScheduler.triggerJob( jobKey );
-                    date = new Date();
+                    listRequestedRuns.add( resumeTrigger( requestedRun ) );
                 }
             }
-            if ( _clusteredScheduler != null && null == date )
+            if ( scheduler == _clusteredScheduler )
+            {
+                _logger.warn( "Clustered job {} replaced in the job store for all the nodes", jobKey.getName( ) );
+            }
+            scheduler.deleteJob( jobKey );
+            _mapJobRoutes.remove( jobKey );
+            _jobFactory.invalidate( jobKey );
+            Date date = scheduleJob( job, newTrigger );
+            Scheduler newScheduler = _mapJobRoutes.get( jobKey );
+            for ( Trigger requestedRun : listRequestedRuns )
             {
-                JobDetail jobDetail = _clusteredScheduler.getJobDetail( jobKey );
-                if ( null != jobDetail )
+                if ( null == newScheduler )
+                {
+                    _logger.warn( "Requested run of job {} lost, the job is not scheduled yet", jobKey.getName( ) );
+                    break;
+                }
+                try
                 {
-                    _clusteredScheduler.triggerJob( jobKey );
-                    date = new Date();
+                    newScheduler.scheduleJob( requestedRun );
                 }
+                catch( ObjectAlreadyExistsException e )
+                {
+                    // Already moved by another node
+                }
+            }
+            _logger.info( "Job rescheduled : {}", jobKey.getName( ) );
+            return date;
+        }
+        catch( SchedulerException e )
+        {
+            _logger.error( "Error rescheduling job {}", jobKey.getName( ), e );
+            return null;
+        }
+    }
+
+    /**
+     * Wait for the run of a job in progress on a scheduler of this node to complete
+     */
+    private void waitForRunningJob( Scheduler scheduler, JobKey jobKey ) throws SchedulerException
+    {
+        boolean bWaiting = false;
+        while ( scheduler.getCurrentlyExecutingJobs( ).stream( ).anyMatch( context -> jobKey.equals( context.getJobDetail( ).getKey( ) ) ) )
+        {
+            if ( !bWaiting )
+            {
+                _logger.info( "Waiting for the run of job {} to complete before moving it", jobKey.getName( ) );
+                bWaiting = true;
+            }
+            try
+            {
+                Thread.sleep( RUNNING_JOB_POLL_INTERVAL );
+            }
+            catch( InterruptedException e )
+            {
+                Thread.currentThread( ).interrupt( );
+                scheduler.resumeJob( jobKey );
+                throw new SchedulerException( "Interrupted while waiting for the run of job " + jobKey.getName( ), e );
+            }
+        }
+    }
+
+    /**
+     * Check whether a job and its trigger have the same definition as the scheduled ones
+     */
+    private static boolean isUnchanged( Scheduler scheduler, JobDetail job, Trigger trigger ) throws SchedulerException
+    {
+        JobDetail currentJob = scheduler.getJobDetail( job.getKey( ) );
+        Trigger currentTrigger = scheduler.getTrigger( trigger.getKey( ) );
+        return null != currentJob && null != currentTrigger && currentJob.getJobDataMap( ).equals( job.getJobDataMap( ) )
+                && currentTrigger.getMisfireInstruction( ) == trigger.getMisfireInstruction( ) && hasSameSchedule( currentTrigger, trigger );
+    }
+
+    /**
+     * Check whether a trigger has the same cron expression or the same interval as the scheduled one
+     */
+    private static boolean hasSameSchedule( Trigger currentTrigger, Trigger trigger )
+    {
+        if ( currentTrigger instanceof CronTrigger && trigger instanceof CronTrigger )
+        {
+            return ( (CronTrigger) currentTrigger ).getCronExpression( ).equals( ( (CronTrigger) trigger ).getCronExpression( ) );
+        }
+        if ( currentTrigger instanceof SimpleTrigger && trigger instanceof SimpleTrigger )
+        {
+            return ( (SimpleTrigger) currentTrigger ).getRepeatInterval( ) == ( (SimpleTrigger) trigger ).getRepeatInterval( );
+        }
+        return false;
+    }
+
+    public Date executeJob( JobKey jobKey )
+    {
+        flushBatch( );
+        Date date = null;
+        try
+        {
+            Scheduler scheduler = findScheduler( jobKey );
+            if ( null != scheduler )
+            {
+                scheduler.triggerJob( jobKey );
+                date = new Date( );
             }
         }
         catch( SchedulerException e )
         {
+            // The job may have been deleted from the JDBC store by another node
+            _mapJobRoutes.remove( jobKey );
             _logger.error( "Error unscheduling job ", e );
         }
         return date;
     }
 
+    /**
+     * Request a run of a job after a delay. The requests made while a requested run is pending are merged into it, the pending run being brought forward
+     * if the request is due earlier. A request made during a requested run fires it again once it has completed.
+     * 
+     * @param jobKey
+     *            the job key
+     * @param lDelay
+     *            the delay before the run, in milliseconds
+     * @return true if a run was scheduled, false if the request was merged into a pending run or the job is unknown
+     */
+    public boolean enqueueJob( JobKey jobKey, long lDelay )
+    {
+        flushBatch( );
+        TriggerKey triggerKey = new TriggerKey( jobKey.getName( ) + ENQUEUED_TRIGGER_SUFFIX, Scheduler.DEFAULT_MANUAL_TRIGGERS );
+        try
+        {
+            Scheduler scheduler = findScheduler( jobKey );
+            if ( null == scheduler )
+            {
+                _logger.debug( "Job {} not scheduled, run request ignored", jobKey.getName( ) );
+                return false;
+            }
+            Trigger trigger = TriggerBuilder.newTrigger( ).withIdentity( triggerKey ).forJob( jobKey )
+                    .startAt( new Date( System.currentTimeMillis( ) + Math.max( lDelay, 0 ) ) ).build( );
+            // The one shot trigger is removed once its run has completed
+            Trigger pendingRun = scheduler.getTrigger( triggerKey );
+            if ( null != pendingRun && null != pendingRun.getNextFireTime( ) )
+            {
+                if ( pendingRun.getNextFireTime( ).after( trigger.getStartTime( ) ) )
+                {
+                    // The request is merged into the pending run, brought forward to the time of the request
+                    scheduler.rescheduleJob( triggerKey, trigger );
+                }
+                return false;
+            }
+            // A trigger without next fire time is the one of the requested run in progress : it is fired again, instead of being deleted at the end
+            // of the run
+            if ( null == pendingRun || null == scheduler.rescheduleJob( triggerKey, trigger ) )
+            {
+                scheduler.scheduleJob( trigger );
+            }
+            return true;
+        }
+        catch( ObjectAlreadyExistsException e )
+        {
+            // Requested concurrently
+            return false;
+        }
+        catch( SchedulerException e )
+        {
+            _mapJobRoutes.remove( jobKey );
+            _logger.error( "Error requesting a run of job {}", jobKey.getName( ), e );
+            return false;
+        }
+    }
+
+    /**
+     * Find the scheduler holding a job, from the routes recorded when scheduling. The schedulers are only probed for the jobs unknown to the routes, such
+     * as the clustered jobs registered by another node.
+     */
+    private Scheduler findScheduler( JobKey jobKey ) throws SchedulerException
+    {
+        Scheduler scheduler = _mapJobRoutes.get( jobKey );
+        if ( null != scheduler )
+        {
+            return scheduler;
+        }
+        for ( Scheduler localScheduler : getLocalSchedulers( ) )
+        {
+            if ( localScheduler.checkExists( jobKey ) )
+            {
+                _mapJobRoutes.put( jobKey, localScheduler );
+                return localScheduler;
+            }
+        }
+        if ( _clusteredScheduler != null && _clusteredScheduler.checkExists( jobKey ) )
+        {
+            _mapJobRoutes.put( jobKey, _clusteredScheduler );
+            return _clusteredScheduler;
+        }
+        return null;
+    }
+
+    void contextInitialized( @Observes @Initialized( ApplicationScoped.class ) ServletContext context )
+    {
+        // The daemons registered during the startup are scheduled all at once
+        flushBatch( );
+    }
+
     void contextDestroyed( @Observes @Priority( value = 2 ) @Destroyed( ApplicationScoped.class ) ServletContext context )
     {
         _logger.info( "JobSchedulerService is shuting down" );
 
-        try
+        if ( null != _startupExecutor )
         {
-            if ( _localScheduler != null )
+            // Wait for the schedulers still starting, so that they are stopped too
+            _startupExecutor.shutdown( );
+            try
             {
-                _localScheduler.shutdown( );
-                _logger.info( "Lutece local job scheduler stopped." );
+                _startupExecutor.awaitTermination( STARTUP_SHUTDOWN_TIMEOUT, TimeUnit.SECONDS );
             }
-            if ( _clusteredScheduler != null )
+            catch( InterruptedException e )
             {
-                _clusteredScheduler.shutdown( );
-                _logger.info( "Lutece clustered job scheduler stopped." );
+                Thread.currentThread( ).interrupt( );
             }
         }
+        // Each scheduler is stopped on its own, so that a failure does not leave the threads of the others running
+        shutdownScheduler( _localScheduler, "local" );
+        shutdownScheduler( _clusteredScheduler, "clustered" );
+        for ( Map.Entry<String, Scheduler> lane : _mapLaneSchedulers.entrySet( ) )
+        {
+            shutdownScheduler( lane.getValue( ), "lane " + lane.getKey( ) );
+        }
+    }
+
+    private void shutdownScheduler( Scheduler scheduler, String strSchedulerName )
+    {
+        if ( null == scheduler )
+        {
+            return;
+        }
+        try
+        {
+            scheduler.shutdown( );
+            _logger.info( "Lutece {} job scheduler stopped.", strSchedulerName );
+        }
         catch( SchedulerException e )
         {
-            _logger.error( "Error shuting down the Lutece job scheduler ", e );
+            _logger.error( "Error shuting down the Lutece {} job scheduler ", strSchedulerName, e );
         }
     }
 
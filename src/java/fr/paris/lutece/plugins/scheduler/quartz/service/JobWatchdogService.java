@@ -0,0 +1,151 @@
+/*
+ * Copyright (c) 2002-2025, City of Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.scheduler.quartz.service;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.quartz.JobExecutionContext;
+import org.quartz.SchedulerException;
+
+import fr.paris.lutece.plugins.scheduler.quartz.Constants;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+/**
+ * Enforces the execution timeout of the daemons. A run lasting longer than the timeout of its daemon is interrupted through the scheduler executing it,
+ * which releases the worker thread and unblocks the next fires of the daemon.
+ */
+@ApplicationScoped
+public class JobWatchdogService
+{
+    private Logger _logger = LogManager.getLogger( "lutece.scheduler.quartz" );
+    @Inject
+    private JobMetricsService _jobMetricsService;
+    private final Map<String, ScheduledFuture<?>> _mapWatchedRuns = new ConcurrentHashMap<>( );
+    private final Set<String> _setTimedOutRuns = ConcurrentHashMap.newKeySet( );
+    private ScheduledExecutorService _watchdog;
+
+    @PostConstruct
+    void init( )
+    {
+        _watchdog = Executors.newSingleThreadScheduledExecutor( runnable -> {
+            Thread thread = new Thread( runnable, "quartz-scheduler-watchdog" );
+            thread.setDaemon( true );
+            return thread;
+        } );
+    }
+
+    @PreDestroy
+    void destroy( )
+    {
+        _watchdog.shutdownNow( );
+    }
+
+    /**
+     * Start watching a run, if its daemon has a timeout
+     * 
+     * @param context
+     *            the context of the run
+     */
+    public void watch( JobExecutionContext context )
+    {
+        String strTimeout = (String) context.getJobDetail( ).getJobDataMap( ).get( Constants.DAEMON_TIMEOUT_JOB_MAP_KEY );
+        if ( null == strTimeout )
+        {
+            return;
+        }
+        long lTimeout = Long.parseLong( strTimeout );
+        String strFireInstanceId = context.getFireInstanceId( );
+        // The timeout is scheduled within the insertion of the watched run, so that a timeout elapsing at once waits for it to be watched
+        _mapWatchedRuns.compute( strFireInstanceId,
+                ( strId, future ) -> _watchdog.schedule( ( ) -> timeout( context, lTimeout ), lTimeout, TimeUnit.MILLISECONDS ) );
+    }
+
+    /**
+     * Stop watching a run
+     * 
+     * @param context
+     *            the context of the run
+     * @return true if the run was interrupted after its timeout
+     */
+    public boolean release( JobExecutionContext context )
+    {
+        ScheduledFuture<?> future = _mapWatchedRuns.remove( context.getFireInstanceId( ) );
+        if ( null != future )
+        {
+            // The run ended before its timeout
+            future.cancel( false );
+            return false;
+        }
+        return _setTimedOutRuns.remove( context.getFireInstanceId( ) );
+    }
+
+    private void timeout( JobExecutionContext context, long lTimeout )
+    {
+        String strFireInstanceId = context.getFireInstanceId( );
+        // The removal of the watched run decides between the timeout and the end of the run. The run is flagged within the removal, so that a
+        // release finding no watched run always finds the flag.
+        boolean [ ] bTimedOut = new boolean [ 1];
+        _mapWatchedRuns.computeIfPresent( strFireInstanceId, ( strId, future ) -> {
+            _setTimedOutRuns.add( strId );
+            bTimedOut [0] = true;
+            return null;
+        } );
+        if ( !bTimedOut [0] )
+        {
+            // The run has just ended
+            return;
+        }
+        _jobMetricsService.recordTimeout( context.getJobDetail( ).getKey( ) );
+        _logger.warn( "Job {} still running after its timeout of {} ms, interrupting it", context.getJobDetail( ).getKey( ).getName( ), lTimeout );
+        try
+        {
+            context.getScheduler( ).interrupt( strFireInstanceId );
+        }
+        catch( SchedulerException e )
+        {
+            _logger.error( "Error interrupting job {}", context.getJobDetail( ).getKey( ).getName( ), e );
+        }
+    }
+}
@@ -0,0 +1,232 @@
+/*
+ * Copyright (c) 2002-2025, City of Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.scheduler.quartz.service;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import fr.paris.lutece.plugins.scheduler.quartz.business.Lease;
+import fr.paris.lutece.plugins.scheduler.quartz.business.LeaseHome;
+import fr.paris.lutece.portal.service.util.AppException;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+/**
+ * Grants the execution of the exclusive daemons to a single node. Each node runs the exclusive daemons with its local scheduler, and each fire first
+ * takes the lease of its daemon with a conditional update of the quartzscheduler_lease table : the lease is granted if it is held for an older fire
+ * and has been released or has expired. The leases are renewed while the daemons run and released when they end.
+ */
+@ApplicationScoped
+public class LeaseService
+{
+    private Logger _logger = LogManager.getLogger( "lutece.scheduler.quartz" );
+    @ConfigProperty( name = "quartzscheduler.lease.duration", defaultValue = "60000" )
+    @Inject
+    private long _lLeaseDuration;
+    private String _strOwner;
+    private final Map<String, Lease> _mapHeldLeases = new ConcurrentHashMap<>( );
+    private final Map<String, Long> _mapPreviousFireTimes = new ConcurrentHashMap<>( );
+    private ScheduledExecutorService _renewer;
+
+    @PostConstruct
+    void init( )
+    {
+        String strHostName;
+        try
+        {
+            strHostName = InetAddress.getLocalHost( ).getHostName( );
+        }
+        catch( UnknownHostException e )
+        {
+            strHostName = "unknown";
+        }
+        _strOwner = strHostName + '-' + UUID.randomUUID( );
+    }
+
+    @PreDestroy
+    void destroy( )
+    {
+        if ( null != _renewer )
+        {
+            _renewer.shutdownNow( );
+        }
+        _mapHeldLeases.keySet( ).forEach( this::release );
+    }
+
+    /**
+     * Try to take the lease of a daemon for a fire
+     * 
+     * @param strName
+     *            the lease name
+     * @param lFireTime
+     *            the scheduled fire time
+     * @return true if the lease is granted to the local node
+     */
+    public boolean acquire( String strName, long lFireTime )
+    {
+        long lNow = System.currentTimeMillis( );
+        Lease lease = new Lease( );
+        lease.setName( strName );
+        lease.setOwner( _strOwner );
+        lease.setFireTime( lFireTime );
+        lease.setExpirationTime( lNow + _lLeaseDuration );
+        Lease current = LeaseHome.findByName( strName );
+        long lPreviousFireTime = null == current ? 0 : current.getFireTime( );
+        if ( null != current )
+        {
+            LeaseHome.acquire( lease, lNow );
+            current = LeaseHome.findByName( strName );
+        }
+        else
+        {
+            try
+            {
+                LeaseHome.create( lease );
+            }
+            catch( AppException e )
+            {
+                _logger.debug( "Lease {} created concurrently by another node", strName, e );
+            }
+            current = LeaseHome.findByName( strName );
+        }
+        if ( null == current || !_strOwner.equals( current.getOwner( ) ) || current.getFireTime( ) != lFireTime )
+        {
+            return false;
+        }
+        _mapPreviousFireTimes.put( strName, lPreviousFireTime );
+        _mapHeldLeases.put( strName, lease );
+        startRenewer( );
+        return true;
+    }
+
+    /**
+     * Release the lease of a daemon held by the local node
+     * 
+     * @param strName
+     *            the lease name
+     */
+    public void release( String strName )
+    {
+        Lease lease = _mapHeldLeases.remove( strName );
+        _mapPreviousFireTimes.remove( strName );
+        if ( null != lease )
+        {
+            // The fire time is kept, so that the other nodes do not run the same fire again
+            lease.setExpirationTime( System.currentTimeMillis( ) );
+            try
+            {
+                LeaseHome.updateExpiration( lease );
+            }
+            catch( AppException e )
+            {
+                _logger.error( "Error releasing the lease {}, it will expire", strName, e );
+            }
+        }
+    }
+
+    /**
+     * Give back the lease of a daemon held by the local node for a fire that has not run. The previous fire time of the lease is restored, so that another
+     * node can still run the fire.
+     * 
+     * @param strName
+     *            the lease name
+     */
+    public void giveBack( String strName )
+    {
+        Lease lease = _mapHeldLeases.remove( strName );
+        Long lPreviousFireTime = _mapPreviousFireTimes.remove( strName );
+        if ( null != lease && null != lPreviousFireTime )
+        {
+            lease.setExpirationTime( System.currentTimeMillis( ) );
+            try
+            {
+                LeaseHome.restore( lease, lPreviousFireTime );
+            }
+            catch( AppException e )
+            {
+                _logger.error( "Error giving back the lease {}, it will expire", strName, e );
+            }
+        }
+    }
+
+    /**
+     * @return the id of the local node in the lease table
+     */
+    public String getOwner( )
+    {
+        return _strOwner;
+    }
+
+    private synchronized void startRenewer( )
+    {
+        if ( null == _renewer )
+        {
+            _renewer = Executors.newSingleThreadScheduledExecutor( runnable -> {
+                Thread thread = new Thread( runnable, "quartz-scheduler-lease-renewer" );
+                thread.setDaemon( true );
+                return thread;
+            } );
+            long lRenewInterval = Math.max( _lLeaseDuration / 3, 1 );
+            _renewer.scheduleWithFixedDelay( this::renewLeases, lRenewInterval, lRenewInterval, TimeUnit.MILLISECONDS );
+        }
+    }
+
+    void renewLeases( )
+    {
+        for ( Lease lease : _mapHeldLeases.values( ) )
+        {
+            try
+            {
+                lease.setExpirationTime( System.currentTimeMillis( ) + _lLeaseDuration );
+                LeaseHome.updateExpiration( lease );
+            }
+            catch( Exception e )
+            {
+                _logger.error( "Error renewing the lease {}", lease.getName( ), e );
+            }
+        }
+    }
+}
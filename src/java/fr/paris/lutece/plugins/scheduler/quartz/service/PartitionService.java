@@ -0,0 +1,205 @@
+/*
+ * Copyright (c) 2002-2025, City of Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.scheduler.quartz.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import fr.paris.lutece.plugins.scheduler.quartz.business.SchedulerStateHome;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+/**
+ * Assigns the partitioned daemons to the live members of the cluster. The members are read periodically from the qrtz_SCHEDULER_STATE table of the
+ * clustered scheduler and placed on a consistent hash ring, so that only the daemons of a leaving or joining node move to another node.
+ */
+@ApplicationScoped
+public class PartitionService
+{
+    private static final int VIRTUAL_NODES = 64;
+
+    private Logger _logger = LogManager.getLogger( "lutece.scheduler.quartz" );
+    @ConfigProperty( name = "quartzscheduler.partition.refreshInterval", defaultValue = "15000" )
+    @Inject
+    private long _lRefreshInterval;
+    private String _strInstanceId;
+    private String _strSchedulerName;
+    private String _strTablePrefix;
+    private volatile List<String> _listMembers = Collections.emptyList( );
+    private volatile NavigableMap<Integer, String> _ring = Collections.emptyNavigableMap( );
+    private ScheduledExecutorService _refresher;
+
+    /**
+     * Start following the membership of the clustered scheduler
+     * 
+     * @param strSchedulerName
+     *            the name of the clustered scheduler
+     * @param strInstanceId
+     *            the instance id of the local node in the clustered scheduler
+     * @param strTablePrefix
+     *            the Quartz table prefix
+     */
+    public synchronized void start( String strSchedulerName, String strInstanceId, String strTablePrefix )
+    {
+        _strSchedulerName = strSchedulerName;
+        _strInstanceId = strInstanceId;
+        _strTablePrefix = strTablePrefix;
+        refreshMembers( );
+        if ( null == _refresher )
+        {
+            _refresher = Executors.newSingleThreadScheduledExecutor( runnable -> {
+                Thread thread = new Thread( runnable, "quartz-scheduler-partition-refresher" );
+                thread.setDaemon( true );
+                return thread;
+            } );
+            _refresher.scheduleWithFixedDelay( this::refreshMembers, _lRefreshInterval, _lRefreshInterval, TimeUnit.MILLISECONDS );
+        }
+    }
+
+    @PreDestroy
+    void stop( )
+    {
+        if ( null != _refresher )
+        {
+            _refresher.shutdownNow( );
+        }
+    }
+
+    /**
+     * Check whether the local node owns the given daemon. As long as the membership is unknown (cluster disabled or not started yet), the local node
+     * owns all the daemons.
+     * 
+     * @param strDaemonId
+     *            the daemon id
+     * @return true if the daemon must run on the local node
+     */
+    public boolean isOwner( String strDaemonId )
+    {
+        String strOwner = getOwner( strDaemonId );
+        return null == strOwner || strOwner.equals( _strInstanceId );
+    }
+
+    /**
+     * Get the member of the cluster that owns the given daemon
+     * 
+     * @param strDaemonId
+     *            the daemon id
+     * @return the instance id of the owner, or null if the membership is unknown
+     */
+    public String getOwner( String strDaemonId )
+    {
+        NavigableMap<Integer, String> ring = _ring;
+        if ( ring.isEmpty( ) )
+        {
+            return null;
+        }
+        Map.Entry<Integer, String> entry = ring.ceilingEntry( hash( strDaemonId ) );
+        return ( null != entry ? entry : ring.firstEntry( ) ).getValue( );
+    }
+
+    /**
+     * Get the live members of the cluster
+     * 
+     * @return the instance ids
+     */
+    public List<String> getMembers( )
+    {
+        return _listMembers;
+    }
+
+    void refreshMembers( )
+    {
+        try
+        {
+            List<String> listMembers = new ArrayList<>( SchedulerStateHome.findLiveInstances( _strTablePrefix, _strSchedulerName ) );
+            if ( !listMembers.contains( _strInstanceId ) )
+            {
+                // The local node may not have checked in yet
+                listMembers.add( _strInstanceId );
+                Collections.sort( listMembers );
+            }
+            if ( !listMembers.equals( _listMembers ) )
+            {
+                NavigableMap<Integer, String> ring = new TreeMap<>( );
+                for ( String strMember : listMembers )
+                {
+                    for ( int i = 0; i < VIRTUAL_NODES; i++ )
+                    {
+                        ring.put( hash( strMember + '#' + i ), strMember );
+                    }
+                }
+                _ring = Collections.unmodifiableNavigableMap( ring );
+                _listMembers = Collections.unmodifiableList( listMembers );
+                _logger.info( "Cluster members for the partitioned daemons : {}", listMembers );
+            }
+        }
+        catch( Exception e )
+        {
+            // Keep the last known membership
+            _logger.error( "Error reading the cluster members, the partitioned daemons keep their current assignment", e );
+        }
+    }
+
+    /**
+     * 32 bits FNV-1a hash, spread by the murmur3 finalizer
+     */
+    private static int hash( String strKey )
+    {
+        int nHash = 0x811c9dc5;
+        for ( byte b : strKey.getBytes( StandardCharsets.UTF_8 ) )
+        {
+            nHash ^= b;
+            nHash *= 0x01000193;
+        }
+        nHash ^= nHash >>> 16;
+        nHash *= 0x85ebca6b;
+        nHash ^= nHash >>> 13;
+        nHash *= 0xc2b2ae35;
+        nHash ^= nHash >>> 16;
+        return nHash;
+    }
+}
@@ -34,6 +34,8 @@
 package fr.paris.lutece.plugins.scheduler.quartz.service;
 
 import java.io.Serializable;
+import java.util.HashMap;
+import java.util.Map;
 
 import javax.cache.Cache;
 import javax.cache.configuration.Factory;
@@ -117,9 +119,16 @@ public class QuartzCacheService extends AbstractCacheableService<String, JobExec
 
         private void updateDaemonEntry( Iterable<CacheEntryEvent<? extends K, ? extends V>> events ) throws CacheEntryListenerException
         {
+            // Only the latest result of each daemon of the batch is applied
+            Map<String, JobExecutionResult> mapLatestResults = new HashMap<>( );
             for ( CacheEntryEvent<? extends K, ? extends V> event : events )
             {
                 JobExecutionResult result = (JobExecutionResult) event.getValue( );
+                mapLatestResults.merge( result.getId( ), result,
+                        ( previous, current ) -> current.getLastRunEndTime( ) >= previous.getLastRunEndTime( ) ? current : previous );
+            }
+            for ( JobExecutionResult result : mapLatestResults.values( ) )
+            {
                 DaemonEntry entry = AppDaemonService.getDaemonEntry( result.getId( ) );
                 if ( null != entry )
                 {
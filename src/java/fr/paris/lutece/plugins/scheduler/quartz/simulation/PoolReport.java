@@ -0,0 +1,198 @@
+/*
+ * Copyright (c) 2002-2025, City of Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.scheduler.quartz.simulation;
+
+import java.util.Date;
+
+/**
+ * Result of the simulation of a thread pool
+ */
+public class PoolReport
+{
+    private final String _strPool;
+    private final int _nThreadCount;
+    private int _nFireCount;
+    private int _nPeakDemand;
+    private long _lPeakDemandTime;
+    private int _nDelayedFireCount;
+    private long _lTotalQueueDelay;
+    private long _lMaxQueueDelay;
+    private int _nMisfireCount;
+    private int _nCoalescedFireCount;
+    private int _nSkippedFireCount;
+
+    /**
+     * Constructor
+     * 
+     * @param strPool
+     *            the pool name
+     * @param nThreadCount
+     *            the number of threads of the pool
+     */
+    PoolReport( String strPool, int nThreadCount )
+    {
+        _strPool = strPool;
+        _nThreadCount = nThreadCount;
+    }
+
+    void recordRun( long lQueueDelay )
+    {
+        _nFireCount++;
+        if ( lQueueDelay > 0 )
+        {
+            _nDelayedFireCount++;
+            _lTotalQueueDelay += lQueueDelay;
+            _lMaxQueueDelay = Math.max( _lMaxQueueDelay, lQueueDelay );
+        }
+    }
+
+    void recordMisfire( boolean bCoalesced )
+    {
+        _nMisfireCount++;
+        if ( bCoalesced )
+        {
+            _nCoalescedFireCount++;
+        }
+    }
+
+    void recordSkippedMisfire( )
+    {
+        _nMisfireCount++;
+        _nSkippedFireCount++;
+    }
+
+    void setPeakDemand( int nPeakDemand, long lPeakDemandTime )
+    {
+        _nPeakDemand = nPeakDemand;
+        _lPeakDemandTime = lPeakDemandTime;
+    }
+
+    public String getPool( )
+    {
+        return _strPool;
+    }
+
+    public int getThreadCount( )
+    {
+        return _nThreadCount;
+    }
+
+    /**
+     * @return the number of simulated runs
+     */
+    public int getFireCount( )
+    {
+        return _nFireCount;
+    }
+
+    /**
+     * @return the highest number of runs that would overlap with an unlimited pool
+     */
+    public int getPeakDemand( )
+    {
+        return _nPeakDemand;
+    }
+
+    /**
+     * @return the time of the peak demand, or null if no daemon fired
+     */
+    public Date getPeakDemandTime( )
+    {
+        return _nPeakDemand == 0 ? null : new Date( _lPeakDemandTime );
+    }
+
+    /**
+     * @return true if the peak demand exceeds the number of threads
+     */
+    public boolean isSaturated( )
+    {
+        return _nPeakDemand > _nThreadCount;
+    }
+
+    /**
+     * @return the number of runs that waited for a free thread or for the previous run of the same daemon
+     */
+    public int getDelayedFireCount( )
+    {
+        return _nDelayedFireCount;
+    }
+
+    /**
+     * @return the mean queueing delay of the runs, in milliseconds
+     */
+    public double getMeanQueueDelay( )
+    {
+        return _nFireCount == 0 ? 0 : (double) _lTotalQueueDelay / _nFireCount;
+    }
+
+    /**
+     * @return the longest queueing delay, in milliseconds
+     */
+    public long getMaxQueueDelay( )
+    {
+        return _lMaxQueueDelay;
+    }
+
+    /**
+     * @return the number of fires delayed beyond the misfire threshold
+     */
+    public int getMisfireCount( )
+    {
+        return _nMisfireCount;
+    }
+
+    /**
+     * @return the number of misfired fires merged into another pending fire of the same daemon
+     */
+    public int getCoalescedFireCount( )
+    {
+        return _nCoalescedFireCount;
+    }
+
+    /**
+     * @return the number of misfired fires skipped until the next fire time of their daemon, as set by its misfire policy
+     */
+    public int getSkippedFireCount( )
+    {
+        return _nSkippedFireCount;
+    }
+
+    @Override
+    public String toString( )
+    {
+        return String.format( "%s threads=%d fires=%d peakDemand=%d at %s delayed=%d meanDelay=%.1fms maxDelay=%dms misfires=%d coalesced=%d skipped=%d",
+                _strPool, _nThreadCount, _nFireCount, _nPeakDemand, getPeakDemandTime( ), _nDelayedFireCount, getMeanQueueDelay( ), _lMaxQueueDelay,
+                _nMisfireCount, _nCoalescedFireCount, _nSkippedFireCount );
+    }
+}
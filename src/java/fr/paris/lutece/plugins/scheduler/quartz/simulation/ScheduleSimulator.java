@@ -0,0 +1,358 @@
+/*
+ * Copyright (c) 2002-2025, City of Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.scheduler.quartz.simulation;
+
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+import org.quartz.CronExpression;
+import org.quartz.JobKey;
+
+import fr.paris.lutece.plugins.scheduler.quartz.Constants;
+import fr.paris.lutece.plugins.scheduler.quartz.DaemonProperties;
+import fr.paris.lutece.plugins.scheduler.quartz.metrics.JobMetrics;
+import fr.paris.lutece.plugins.scheduler.quartz.service.JobMetricsService;
+import fr.paris.lutece.portal.service.daemon.DaemonEntry;
+import fr.paris.lutece.portal.service.util.AppPropertiesService;
+
+/**
+ * Offline capacity planning. Replays the schedule of the daemons over a time range against the size of the thread pools, and predicts for each pool the
+ * peak concurrency, the queueing delay and the misfires. The daemons are served first come first served, one run at a time per daemon as with the
+ * {@link fr.paris.lutece.plugins.scheduler.quartz.job.DaemonJob} : a fire waiting for the previous run of its daemon holds no thread. The fires waiting
+ * longer than the misfire threshold are handled with the misfire policy of their daemon : replayed once right away (the default for the cron daemons),
+ * or skipped until the next fire time (the default for the interval daemons).
+ */
+public class ScheduleSimulator
+{
+    public static final String POOL_LOCAL = "local";
+    public static final String POOL_CLUSTERED = "clustered";
+
+    private static final long DEFAULT_MISFIRE_THRESHOLD = 60000;
+    private static final double OBSERVED_DURATION_PERCENTILE = 95;
+
+    private final Map<String, Integer> _mapPoolSizes = new HashMap<>( );
+    private final List<SimulatedDaemon> _listDaemons = new ArrayList<>( );
+    private long _lMisfireThreshold = DEFAULT_MISFIRE_THRESHOLD;
+
+    /**
+     * Set the number of threads of a pool
+     * 
+     * @param strPool
+     *            the pool name : {@link #POOL_LOCAL}, {@link #POOL_CLUSTERED} or a lane name
+     * @param nThreadCount
+     *            the number of threads
+     */
+    public void setPoolSize( String strPool, int nThreadCount )
+    {
+        _mapPoolSizes.put( strPool, nThreadCount );
+    }
+
+    /**
+     * Set the misfire threshold of the schedulers (org.quartz.jobStore.misfireThreshold)
+     * 
+     * @param lMisfireThreshold
+     *            the threshold in milliseconds
+     */
+    public void setMisfireThreshold( long lMisfireThreshold )
+    {
+        _lMisfireThreshold = lMisfireThreshold;
+    }
+
+    /**
+     * Add a daemon to the simulation
+     * 
+     * @param daemon
+     *            the daemon schedule
+     */
+    public void addDaemon( SimulatedDaemon daemon )
+    {
+        _listDaemons.add( daemon );
+    }
+
+    /**
+     * Add a daemon with the schedule and the pool the QuartzJobScheduler would give it, started at the start of the simulation
+     * 
+     * @param entry
+     *            the daemon entry
+     * @param lDuration
+     *            the estimated run duration in milliseconds
+     */
+    public void addDaemon( DaemonEntry entry, long lDuration )
+    {
+        addDaemon( entry, lDuration, 0 );
+    }
+
+    /**
+     * Add a daemon with the schedule and the pool the QuartzJobScheduler would give it
+     * 
+     * @param entry
+     *            the daemon entry
+     * @param lDuration
+     *            the estimated run duration in milliseconds
+     * @param lInitialDelay
+     *            the initial delay in milliseconds of the daemon after the start of the simulation
+     */
+    public void addDaemon( DaemonEntry entry, long lDuration, long lInitialDelay )
+    {
+        String strPool = getPool( entry.getId( ) );
+        if ( !POOL_LOCAL.equals( strPool ) && !POOL_CLUSTERED.equals( strPool ) && !_mapPoolSizes.containsKey( strPool ) )
+        {
+            setPoolSize( strPool, DaemonProperties.getLaneThreadCounts( ).get( strPool ) );
+        }
+        boolean bCron = null != entry.getCron( ) && !entry.getCron( ).isEmpty( );
+        addDaemon( new SimulatedDaemon( entry.getId( ), strPool, entry.getCron( ), entry.getInterval( ), lDuration, lInitialDelay,
+                DaemonProperties.isExclusive( entry.getId( ) ), DaemonProperties.isMisfireReplayed( entry.getId( ), bCron ) ) );
+    }
+
+    /**
+     * Add daemons with the run duration observed on this node (95th percentile), or an estimated duration for the daemons that never ran
+     * 
+     * @param entries
+     *            the daemon entries
+     * @param jobMetricsService
+     *            the metrics of the jobs executed on this node
+     * @param lDefaultDuration
+     *            the run duration in milliseconds of the daemons without metrics
+     */
+    public void addDaemons( Collection<DaemonEntry> entries, JobMetricsService jobMetricsService, long lDefaultDuration )
+    {
+        for ( DaemonEntry entry : entries )
+        {
+            JobMetrics metrics = jobMetricsService.getMetrics( new JobKey( entry.getId( ), Constants.DEFAULT_GROUP ) );
+            long lDuration = lDefaultDuration;
+            if ( null != metrics && metrics.getRunDuration( ).getCount( ) > 0 )
+            {
+                lDuration = metrics.getRunDuration( ).getPercentile( OBSERVED_DURATION_PERCENTILE );
+            }
+            addDaemon( entry, lDuration );
+        }
+    }
+
+    /**
+     * Replay the schedule of the daemons
+     * 
+     * @param dateStart
+     *            the start of the time range
+     * @param dateEnd
+     *            the end of the time range
+     * @return the report of each pool
+     * @throws ParseException
+     *             if a cron expression is invalid
+     */
+    public List<PoolReport> simulate( Date dateStart, Date dateEnd ) throws ParseException
+    {
+        Map<String, List<SimulatedDaemon>> mapPools = new LinkedHashMap<>( );
+        for ( SimulatedDaemon daemon : _listDaemons )
+        {
+            mapPools.computeIfAbsent( daemon.getPool( ), strPool -> new ArrayList<>( ) ).add( daemon );
+        }
+        List<PoolReport> listReports = new ArrayList<>( );
+        for ( Map.Entry<String, List<SimulatedDaemon>> pool : mapPools.entrySet( ) )
+        {
+            listReports.add( simulatePool( pool.getKey( ), pool.getValue( ), dateStart.getTime( ), dateEnd.getTime( ) ) );
+        }
+        return listReports;
+    }
+
+    private PoolReport simulatePool( String strPool, List<SimulatedDaemon> listDaemons, long lStart, long lEnd ) throws ParseException
+    {
+        Integer nThreadCount = _mapPoolSizes.get( strPool );
+        if ( null == nThreadCount || nThreadCount < 1 )
+        {
+            throw new IllegalStateException( "No thread count for the pool " + strPool );
+        }
+        PoolReport report = new PoolReport( strPool, nThreadCount );
+
+        // Fires of the pool, as { fire time, daemon index }, in the order they are acquired
+        List<long [ ]> listFires = new ArrayList<>( );
+        for ( int i = 0; i < listDaemons.size( ); i++ )
+        {
+            for ( long lFireTime : getFireTimes( listDaemons.get( i ), lStart, lEnd ) )
+            {
+                listFires.add( new long [ ] {
+                        lFireTime, i
+                } );
+            }
+        }
+        listFires.sort( Comparator.<long [ ]> comparingLong( fire -> fire [0] ).thenComparingLong( fire -> fire [1] ) );
+        computePeakDemand( report, listFires, listDaemons );
+
+        PriorityQueue<Long> threads = new PriorityQueue<>( );
+        for ( int i = 0; i < nThreadCount; i++ )
+        {
+            threads.add( lStart );
+        }
+        // Fires ready to run, as { ready time, fire time, daemon index } : a fire is ready once the previous run of its daemon has ended
+        PriorityQueue<long [ ]> readyFires = new PriorityQueue<>(
+                Comparator.<long [ ]> comparingLong( fire -> fire [0] ).thenComparingLong( fire -> fire [1] ).thenComparingLong( fire -> fire [2] ) );
+        for ( long [ ] fire : listFires )
+        {
+            readyFires.add( new long [ ] {
+                    fire [0], fire [0], fire [1]
+            } );
+        }
+        long [ ] lastStarts = new long [ listDaemons.size( )];
+        long [ ] lastEnds = new long [ listDaemons.size( )];
+        Arrays.fill( lastStarts, Long.MIN_VALUE );
+        Arrays.fill( lastEnds, Long.MIN_VALUE );
+        while ( !readyFires.isEmpty( ) )
+        {
+            long [ ] fire = readyFires.poll( );
+            int nDaemon = (int) fire [2];
+            if ( lastEnds [nDaemon] > fire [0] )
+            {
+                // A trigger blocked by the run of its daemon is not acquired : it waits for the end of the run without holding a thread
+                fire [0] = lastEnds [nDaemon];
+                readyFires.add( fire );
+                continue;
+            }
+            SimulatedDaemon daemon = listDaemons.get( nDaemon );
+            long lRunStart = Math.max( fire [0], threads.peek( ) );
+            long lQueueDelay = lRunStart - fire [1];
+            if ( lQueueDelay > _lMisfireThreshold )
+            {
+                if ( !daemon.isMisfireReplayed( ) )
+                {
+                    // The trigger goes on with its next fire time
+                    report.recordSkippedMisfire( );
+                    continue;
+                }
+                // The misfired fires of a daemon are replayed only once
+                boolean bCoalesced = lastStarts [nDaemon] >= fire [1];
+                report.recordMisfire( bCoalesced );
+                if ( bCoalesced )
+                {
+                    continue;
+                }
+            }
+            long lRunEnd = lRunStart + daemon.getDuration( );
+            threads.poll( );
+            threads.add( lRunEnd );
+            lastStarts [nDaemon] = lRunStart;
+            lastEnds [nDaemon] = lRunEnd;
+            report.recordRun( lQueueDelay );
+        }
+        return report;
+    }
+
+    /**
+     * Compute the highest number of overlapping runs with an unlimited pool
+     */
+    private static void computePeakDemand( PoolReport report, List<long [ ]> listFires, List<SimulatedDaemon> listDaemons )
+    {
+        long [ ] starts = new long [ listFires.size( )];
+        long [ ] ends = new long [ listFires.size( )];
+        for ( int i = 0; i < starts.length; i++ )
+        {
+            long [ ] fire = listFires.get( i );
+            starts [i] = fire [0];
+            ends [i] = fire [0] + Math.max( 1, listDaemons.get( (int) fire [1] ).getDuration( ) );
+        }
+        Arrays.sort( starts );
+        Arrays.sort( ends );
+        int nRunning = 0;
+        int nPeak = 0;
+        long lPeakTime = 0;
+        int j = 0;
+        for ( long lRunStart : starts )
+        {
+            while ( ends [j] <= lRunStart )
+            {
+                nRunning--;
+                j++;
+            }
+            nRunning++;
+            if ( nRunning > nPeak )
+            {
+                nPeak = nRunning;
+                lPeakTime = lRunStart;
+            }
+        }
+        report.setPeakDemand( nPeak, lPeakTime );
+    }
+
+    /**
+     * Compute the fire times of a daemon within a time range, with the Quartz cron expression evaluation for the cron daemons
+     */
+    private static List<Long> getFireTimes( SimulatedDaemon daemon, long lStart, long lEnd ) throws ParseException
+    {
+        List<Long> listFireTimes = new ArrayList<>( );
+        if ( null != daemon.getCron( ) )
+        {
+            CronExpression cronExpression = new CronExpression( daemon.getCron( ) );
+            Date next = cronExpression.getNextValidTimeAfter( new Date( lStart - 1 ) );
+            while ( null != next && next.getTime( ) < lEnd )
+            {
+                listFireTimes.add( next.getTime( ) );
+                next = cronExpression.getNextValidTimeAfter( next );
+            }
+        }
+        else if ( daemon.getInterval( ) > 0 )
+        {
+            long lFirstFireTime = DaemonProperties.getIntervalStartTime( daemon.getId( ), daemon.getInterval( ), daemon.isExclusive( ),
+                    lStart + daemon.getInitialDelay( ) );
+            for ( long lFireTime = lFirstFireTime; lFireTime < lEnd; lFireTime += daemon.getInterval( ) * 1000 )
+            {
+                listFireTimes.add( lFireTime );
+            }
+        }
+        return listFireTimes;
+    }
+
+    /**
+     * Get the pool a daemon runs in, with the routing rules of the QuartzJobScheduler
+     */
+    private static String getPool( String strDaemonId )
+    {
+        if ( DaemonProperties.isClustered( strDaemonId ) && AppPropertiesService.getPropertyBoolean( DaemonProperties.PROPERTY_CLUSTER_ENABLE, false ) )
+        {
+            return POOL_CLUSTERED;
+        }
+        String strLane = DaemonProperties.getLane( strDaemonId );
+        if ( null != strLane && DaemonProperties.getLaneThreadCounts( ).containsKey( strLane ) )
+        {
+            return strLane;
+        }
+        return POOL_LOCAL;
+    }
+}
@@ -0,0 +1,166 @@
+/*
+ * Copyright (c) 2002-2025, City of Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.scheduler.quartz.simulation;
+
+/**
+ * Schedule of a daemon replayed by the {@link ScheduleSimulator} : a cron expression or an interval, the pool running it and its expected run duration.
+ * The first fire of an interval daemon follows its initial delay, its exclusive alignment and its stagger offset, as with the QuartzJobScheduler. Its
+ * misfired fires are either replayed once right away or skipped until its next fire time, depending on its misfire policy.
+ */
+public class SimulatedDaemon
+{
+    private final String _strId;
+    private final String _strPool;
+    private final String _strCron;
+    private final long _lInterval;
+    private final long _lDuration;
+    private final long _lInitialDelay;
+    private final boolean _bExclusive;
+    private final boolean _bMisfireReplayed;
+
+    /**
+     * Constructor
+     * 
+     * @param strId
+     *            the daemon id
+     * @param strPool
+     *            the name of the pool running the daemon
+     * @param strCron
+     *            the cron expression, or null for an interval daemon
+     * @param lInterval
+     *            the interval in seconds, used when there is no cron expression
+     * @param lDuration
+     *            the expected run duration in milliseconds
+     */
+    public SimulatedDaemon( String strId, String strPool, String strCron, long lInterval, long lDuration )
+    {
+        this( strId, strPool, strCron, lInterval, lDuration, 0, false );
+    }
+
+    /**
+     * Constructor
+     * 
+     * @param strId
+     *            the daemon id
+     * @param strPool
+     *            the name of the pool running the daemon
+     * @param strCron
+     *            the cron expression, or null for an interval daemon
+     * @param lInterval
+     *            the interval in seconds, used when there is no cron expression
+     * @param lDuration
+     *            the expected run duration in milliseconds
+     * @param lInitialDelay
+     *            the delay in milliseconds between the start of the simulation and the first fire of an interval daemon, before its stagger offset
+     * @param bExclusive
+     *            true if the daemon is exclusive : its first fire is aligned on its interval
+     */
+    public SimulatedDaemon( String strId, String strPool, String strCron, long lInterval, long lDuration, long lInitialDelay, boolean bExclusive )
+    {
+        this( strId, strPool, strCron, lInterval, lDuration, lInitialDelay, bExclusive, null != strCron && !strCron.isEmpty( ) );
+    }
+
+    /**
+     * Constructor
+     * 
+     * @param strId
+     *            the daemon id
+     * @param strPool
+     *            the name of the pool running the daemon
+     * @param strCron
+     *            the cron expression, or null for an interval daemon
+     * @param lInterval
+     *            the interval in seconds, used when there is no cron expression
+     * @param lDuration
+     *            the expected run duration in milliseconds
+     * @param lInitialDelay
+     *            the delay in milliseconds between the start of the simulation and the first fire of an interval daemon, before its stagger offset
+     * @param bExclusive
+     *            true if the daemon is exclusive : its first fire is aligned on its interval
+     * @param bMisfireReplayed
+     *            true if a misfired fire is replayed once right away, false if it is skipped until the next fire time
+     */
+    public SimulatedDaemon( String strId, String strPool, String strCron, long lInterval, long lDuration, long lInitialDelay, boolean bExclusive,
+            boolean bMisfireReplayed )
+    {
+        _strId = strId;
+        _strPool = strPool;
+        _strCron = ( null == strCron || strCron.isEmpty( ) ) ? null : strCron;
+        _lInterval = lInterval;
+        _lDuration = Math.max( lDuration, 0 );
+        _lInitialDelay = Math.max( lInitialDelay, 0 );
+        _bExclusive = bExclusive;
+        _bMisfireReplayed = bMisfireReplayed;
+    }
+
+    public String getId( )
+    {
+        return _strId;
+    }
+
+    public String getPool( )
+    {
+        return _strPool;
+    }
+
+    public String getCron( )
+    {
+        return _strCron;
+    }
+
+    public long getInterval( )
+    {
+        return _lInterval;
+    }
+
+    public long getDuration( )
+    {
+        return _lDuration;
+    }
+
+    public long getInitialDelay( )
+    {
+        return _lInitialDelay;
+    }
+
+    public boolean isExclusive( )
+    {
+        return _bExclusive;
+    }
+
+    public boolean isMisfireReplayed( )
+    {
+        return _bMisfireReplayed;
+    }
+}
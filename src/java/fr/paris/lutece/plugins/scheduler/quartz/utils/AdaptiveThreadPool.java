@@ -0,0 +1,380 @@
+/*
+ * Copyright (c) 2002-2025, City of Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.scheduler.quartz.utils;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.quartz.SchedulerConfigException;
+import org.quartz.spi.ThreadPool;
+
+/**
+ * Quartz thread pool whose size adapts between a minimum and a maximum number of threads. The pool grows by one thread when triggers are waiting : when
+ * an acquired trigger waits for a free worker longer than <code>growWaitThreshold</code>, when a trigger misfires or when a job starts more than
+ * <code>fireLagThreshold</code> milliseconds after its scheduled time. The scheduler also waits for a free worker before looking for due triggers : this
+ * wait alone does not grow the pool, as the workers may be busy with long running jobs while no trigger is due. It shrinks by one thread after each <code>idleTimeout</code> period without any saturation. The misfires and fire lags are
+ * reported by the {@link AdaptiveThreadPoolTriggerListener}.
+ */
+public class AdaptiveThreadPool implements ThreadPool
+{
+    private static final String THREAD_NAME_SUFFIX = "_AdaptiveWorker-";
+    private static final Map<String, AdaptiveThreadPool> INSTANCES = new ConcurrentHashMap<>( );
+
+    private Logger _logger = LogManager.getLogger( "lutece.scheduler.quartz" );
+    private final Object _lock = new Object( );
+    private final AtomicInteger _threadSequence = new AtomicInteger( );
+    private ThreadPoolExecutor _executor;
+    private String _strInstanceName = "";
+    private int _nMinThreadCount = 1;
+    private int _nMaxThreadCount = 10;
+    private long _lIdleTimeout = 60000L;
+    private long _lFireLagThreshold = 1000L;
+    private long _lGrowWaitThreshold = 500L;
+    private long _lAdjustmentInterval = 1000L;
+    private int _nSize;
+    private int _nBusy;
+    private long _lLastSaturation;
+    private long _lLastAdjustment;
+    private boolean _bShutdown;
+
+    /**
+     * Get the adaptive pool of a scheduler
+     * 
+     * @param strSchedulerName
+     *            the scheduler name
+     * @return the pool, or null if the scheduler does not use an adaptive pool
+     */
+    public static AdaptiveThreadPool getInstance( String strSchedulerName )
+    {
+        return INSTANCES.get( strSchedulerName );
+    }
+
+    /**
+     * Get all the adaptive pools
+     * 
+     * @return the pools
+     */
+    public static Collection<AdaptiveThreadPool> getInstances( )
+    {
+        return Collections.unmodifiableCollection( INSTANCES.values( ) );
+    }
+
+    public void setMinThreadCount( int nMinThreadCount )
+    {
+        _nMinThreadCount = nMinThreadCount;
+    }
+
+    public void setMaxThreadCount( int nMaxThreadCount )
+    {
+        _nMaxThreadCount = nMaxThreadCount;
+    }
+
+    public void setIdleTimeout( long lIdleTimeout )
+    {
+        _lIdleTimeout = lIdleTimeout;
+    }
+
+    public void setFireLagThreshold( long lFireLagThreshold )
+    {
+        _lFireLagThreshold = lFireLagThreshold;
+    }
+
+    public void setGrowWaitThreshold( long lGrowWaitThreshold )
+    {
+        _lGrowWaitThreshold = lGrowWaitThreshold;
+    }
+
+    public void setAdjustmentInterval( long lAdjustmentInterval )
+    {
+        _lAdjustmentInterval = lAdjustmentInterval;
+    }
+
+    public String getInstanceName( )
+    {
+        return _strInstanceName;
+    }
+
+    public int getMinThreadCount( )
+    {
+        return _nMinThreadCount;
+    }
+
+    public int getMaxThreadCount( )
+    {
+        return _nMaxThreadCount;
+    }
+
+    /**
+     * Get the number of jobs currently running
+     * 
+     * @return the number of busy threads
+     */
+    public int getBusyCount( )
+    {
+        synchronized( _lock )
+        {
+            return _nBusy;
+        }
+    }
+
+    /**
+     * Get the ratio of busy threads
+     * 
+     * @return the saturation, between 0 and 1
+     */
+    public double getSaturation( )
+    {
+        synchronized( _lock )
+        {
+            return _nSize == 0 ? 0 : (double) _nBusy / _nSize;
+        }
+    }
+
+    /**
+     * Report a job that started after its scheduled time
+     * 
+     * @param lFireLag
+     *            the delay between the scheduled fire time and the start of the job, in milliseconds
+     */
+    public void fireLagged( long lFireLag )
+    {
+        if ( lFireLag > _lFireLagThreshold )
+        {
+            grow( "fire lag of " + lFireLag + " ms" );
+        }
+    }
+
+    /**
+     * Report a misfired trigger
+     */
+    public void triggerMisfired( )
+    {
+        grow( "misfire" );
+    }
+
+    @Override
+    public boolean runInThread( Runnable runnable )
+    {
+        if ( runnable == null )
+        {
+            return false;
+        }
+        synchronized( _lock )
+        {
+            // The job of an acquired trigger is waiting
+            waitForAvailableThread( true );
+            if ( _bShutdown )
+            {
+                return false;
+            }
+            _nBusy++;
+        }
+        _executor.execute( ( ) -> {
+            try
+            {
+                runnable.run( );
+            }
+            finally
+            {
+                synchronized( _lock )
+                {
+                    _nBusy--;
+                    _lock.notifyAll( );
+                }
+            }
+        } );
+        return true;
+    }
+
+    @Override
+    public int blockForAvailableThreads( )
+    {
+        synchronized( _lock )
+        {
+            // No trigger has been acquired yet : the late triggers are reported by their fire lag or their misfire
+            waitForAvailableThread( false );
+            shrinkIfIdle( );
+            return _nSize - _nBusy;
+        }
+    }
+
+    @Override
+    public void initialize( ) throws SchedulerConfigException
+    {
+        if ( _nMinThreadCount < 1 || _nMaxThreadCount < _nMinThreadCount )
+        {
+            throw new SchedulerConfigException( "Invalid adaptive thread pool bounds : min=" + _nMinThreadCount + " max=" + _nMaxThreadCount );
+        }
+        _nSize = _nMinThreadCount;
+        _lLastSaturation = System.currentTimeMillis( );
+        _executor = new ThreadPoolExecutor( _nSize, _nMaxThreadCount, _lIdleTimeout, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>( ),
+                runnable -> new Thread( runnable, _strInstanceName + THREAD_NAME_SUFFIX + _threadSequence.incrementAndGet( ) ) );
+        _executor.allowCoreThreadTimeOut( true );
+        INSTANCES.put( _strInstanceName, this );
+        _logger.info( "Adaptive thread pool initialized for scheduler {} with {} to {} threads", _strInstanceName, _nMinThreadCount, _nMaxThreadCount );
+    }
+
+    @Override
+    public void shutdown( boolean waitForJobsToComplete )
+    {
+        INSTANCES.remove( _strInstanceName, this );
+        synchronized( _lock )
+        {
+            _bShutdown = true;
+            _lock.notifyAll( );
+        }
+        if ( _executor == null )
+        {
+            return;
+        }
+        _executor.shutdown( );
+        if ( waitForJobsToComplete )
+        {
+            try
+            {
+                while ( !_executor.awaitTermination( 1, TimeUnit.SECONDS ) )
+                {
+                    _logger.debug( "Waiting for {} running jobs to complete", getBusyCount( ) );
+                }
+            }
+            catch( InterruptedException e )
+            {
+                Thread.currentThread( ).interrupt( );
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * 
+     * @return the current size of the pool
+     */
+    @Override
+    public int getPoolSize( )
+    {
+        synchronized( _lock )
+        {
+            return _nSize;
+        }
+    }
+
+    @Override
+    public void setInstanceId( String schedInstId )
+    {
+        // Not used
+    }
+
+    @Override
+    public void setInstanceName( String schedName )
+    {
+        _strInstanceName = schedName;
+    }
+
+    /**
+     * Wait until a thread is free, growing the pool if a job is waiting for longer than the grow threshold. Must be called holding the lock.
+     */
+    private void waitForAvailableThread( boolean bJobWaiting )
+    {
+        long lWaitStart = System.currentTimeMillis( );
+        while ( _nBusy >= _nSize && !_bShutdown )
+        {
+            _lLastSaturation = System.currentTimeMillis( );
+            if ( bJobWaiting && _lLastSaturation - lWaitStart >= _lGrowWaitThreshold && resize( _nSize + 1 ) )
+            {
+                _logger.debug( "Adaptive thread pool {} saturated for {} ms", _strInstanceName, _lLastSaturation - lWaitStart );
+                continue;
+            }
+            try
+            {
+                _lock.wait( Math.max( 1L, _lGrowWaitThreshold ) );
+            }
+            catch( InterruptedException e )
+            {
+                // Same behavior as the Quartz SimpleThreadPool : keep waiting
+                _logger.debug( "Interrupted while waiting for an available thread" );
+            }
+        }
+    }
+
+    private void grow( String strReason )
+    {
+        synchronized( _lock )
+        {
+            _lLastSaturation = System.currentTimeMillis( );
+            if ( resize( _nSize + 1 ) )
+            {
+                _logger.debug( "Adaptive thread pool {} grown on {}", _strInstanceName, strReason );
+            }
+        }
+    }
+
+    /**
+     * Shrink the pool by one thread after an idle period. Must be called holding the lock.
+     */
+    private void shrinkIfIdle( )
+    {
+        long lNow = System.currentTimeMillis( );
+        if ( _nSize > _nMinThreadCount && _nBusy < _nSize && lNow - _lLastSaturation >= _lIdleTimeout && resize( _nSize - 1 ) )
+        {
+            // Wait for another idle period before the next shrink
+            _lLastSaturation = lNow;
+        }
+    }
+
+    /**
+     * Change the size of the pool, at most once per adjustment interval. Must be called holding the lock.
+     */
+    private boolean resize( int nNewSize )
+    {
+        long lNow = System.currentTimeMillis( );
+        if ( nNewSize < _nMinThreadCount || nNewSize > _nMaxThreadCount || nNewSize == _nSize || lNow - _lLastAdjustment < _lAdjustmentInterval )
+        {
+            return false;
+        }
+        _lLastAdjustment = lNow;
+        _nSize = nNewSize;
+        _executor.setCorePoolSize( nNewSize );
+        _lock.notifyAll( );
+        _logger.info( "Adaptive thread pool {} resized to {} threads", _strInstanceName, nNewSize );
+        return true;
+    }
+}
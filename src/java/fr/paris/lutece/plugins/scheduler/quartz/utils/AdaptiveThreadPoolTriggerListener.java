@@ -0,0 +1,101 @@
+/*
+ * Copyright (c) 2002-2025, City of Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.scheduler.quartz.utils;
+
+import org.quartz.JobExecutionContext;
+import org.quartz.Scheduler;
+import org.quartz.SchedulerException;
+import org.quartz.Trigger;
+import org.quartz.listeners.TriggerListenerSupport;
+
+/**
+ * Reports the misfires and the fire lags of a scheduler to its {@link AdaptiveThreadPool}.
+ */
+public class AdaptiveThreadPoolTriggerListener extends TriggerListenerSupport
+{
+    private final String _strSchedulerName;
+
+    /**
+     * Constructor
+     * 
+     * @param strSchedulerName
+     *            the name of the scheduler using the adaptive pool
+     */
+    public AdaptiveThreadPoolTriggerListener( String strSchedulerName )
+    {
+        _strSchedulerName = strSchedulerName;
+    }
+
+    @Override
+    public String getName( )
+    {
+        return AdaptiveThreadPoolTriggerListener.class.getName( );
+    }
+
+    @Override
+    public void triggerFired( Trigger trigger, JobExecutionContext context )
+    {
+        AdaptiveThreadPool pool = AdaptiveThreadPool.getInstance( _strSchedulerName );
+        if ( null != pool && null != context.getScheduledFireTime( ) )
+        {
+            pool.fireLagged( System.currentTimeMillis( ) - context.getScheduledFireTime( ).getTime( ) );
+        }
+    }
+
+    @Override
+    public void triggerMisfired( Trigger trigger )
+    {
+        AdaptiveThreadPool pool = AdaptiveThreadPool.getInstance( _strSchedulerName );
+        if ( null != pool )
+        {
+            pool.triggerMisfired( );
+        }
+    }
+
+    /**
+     * Register the listener on a scheduler if it uses an adaptive pool
+     * 
+     * @param scheduler
+     *            the scheduler
+     * @throws SchedulerException
+     *             if the listener can't be registered
+     */
+    public static void register( Scheduler scheduler ) throws SchedulerException
+    {
+        if ( AdaptiveThreadPool.class.equals( scheduler.getMetaData( ).getThreadPoolClass( ) ) )
+        {
+            scheduler.getListenerManager( ).addTriggerListener( new AdaptiveThreadPoolTriggerListener( scheduler.getSchedulerName( ) ) );
+        }
+    }
+}
@@ -0,0 +1,437 @@
+/*
+ * Copyright (c) 2002-2025, City of Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.scheduler.quartz.utils;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.quartz.JobDetail;
+import org.quartz.JobPersistenceException;
+import org.quartz.Scheduler;
+import org.quartz.SchedulerConfigException;
+import org.quartz.SchedulerException;
+import org.quartz.Trigger.CompletedExecutionInstruction;
+import org.quartz.impl.jdbcjobstore.JobStoreTX;
+import org.quartz.spi.ClassLoadHelper;
+import org.quartz.spi.OperableTrigger;
+import org.quartz.spi.SchedulerSignaler;
+import org.quartz.spi.TriggerFiredResult;
+
+/**
+ * Clustered job store taking the load of the node into account when acquiring triggers. Without it, a node whose workers are all busy may still acquire
+ * due triggers, the jobs then waiting for a worker while the other nodes are idle.
+ * <ul>
+ * <li>While the acquired and executing triggers of the node reach its maximum load, no trigger is acquired.</li>
+ * <li>The load of the node is written at each cluster check-in in the NODE_LOAD column of the SCHEDULER_STATE table. A node more loaded than another live
+ * node only acquires the triggers that are overdue by more than the acquisition deferral, leaving the less loaded nodes take them first.</li>
+ * </ul>
+ * The scheduler thread sleeps for its idle wait time when no trigger is acquired. It is woken up when a worker is released, and at the end of the
+ * acquisition deferral, so that the deferred triggers are not delayed up to the idle wait time.
+ */
+public class LoadAwareJobStore extends JobStoreTX
+{
+    private static final Map<String, LoadAwareJobStore> INSTANCES = new ConcurrentHashMap<>( );
+    private static final long DEFAULT_SATURATION_WAIT = 1000;
+    private static final long DEFAULT_ACQUISITION_DEFERRAL = 5000;
+    private static final String SQL_UPDATE_LOAD = "UPDATE {0}SCHEDULER_STATE SET NODE_LOAD = ? WHERE SCHED_NAME = ? AND INSTANCE_NAME = ?";
+    private static final String SQL_SELECT_LOADS = "SELECT INSTANCE_NAME, NODE_LOAD FROM {0}SCHEDULER_STATE WHERE SCHED_NAME = ? AND LAST_CHECKIN_TIME + CHECKIN_INTERVAL * 2 >= ?";
+
+    private Logger _logger = LogManager.getLogger( "lutece.scheduler.quartz" );
+    private final Object _lock = new Object( );
+    private final Set<String> _setAcquired = ConcurrentHashMap.newKeySet( );
+    private final Set<String> _setExecuting = ConcurrentHashMap.newKeySet( );
+    private String _strSchedulerName;
+    private volatile int _nMaxLoad;
+    private long _lSaturationWait = DEFAULT_SATURATION_WAIT;
+    private long _lAcquisitionDeferral = DEFAULT_ACQUISITION_DEFERRAL;
+    private volatile Map<String, Integer> _mapNodeLoads = Collections.emptyMap( );
+    private volatile boolean _bShutdown;
+    private SchedulerSignaler _signaler;
+    private ScheduledExecutorService _wakeUpExecutor;
+    private ScheduledFuture<?> _deferredWakeUp;
+
+    /**
+     * Get the job store of the given scheduler
+     * 
+     * @param strSchedulerName
+     *            the scheduler name
+     * @return the job store, or null if the scheduler does not use a load aware job store
+     */
+    public static LoadAwareJobStore getInstance( String strSchedulerName )
+    {
+        return INSTANCES.get( strSchedulerName );
+    }
+
+    /**
+     * Take the thread pool size of a scheduler as the maximum load of its job store, if it uses a load aware job store whose maximum load is not set
+     * 
+     * @param scheduler
+     *            the scheduler
+     * @throws SchedulerException
+     *             if the scheduler metadata can't be read
+     */
+    public static void register( Scheduler scheduler ) throws SchedulerException
+    {
+        LoadAwareJobStore store = getInstance( scheduler.getSchedulerName( ) );
+        if ( null != store && store._nMaxLoad <= 0 )
+        {
+            store._nMaxLoad = scheduler.getMetaData( ).getThreadPoolSize( );
+        }
+    }
+
+    @Override
+    public void setInstanceName( String strInstanceName )
+    {
+        super.setInstanceName( strInstanceName );
+        _strSchedulerName = strInstanceName;
+    }
+
+    /**
+     * Set the number of concurrent executions from which the node is saturated. Defaults to the thread pool size, no limit being applied if the pool is
+     * unbounded.
+     * 
+     * @param nMaxLoad
+     *            the maximum load
+     */
+    public void setMaxLoad( int nMaxLoad )
+    {
+        _nMaxLoad = nMaxLoad;
+    }
+
+    /**
+     * Set the time in milliseconds to wait for a worker to be released before giving up an acquisition while saturated
+     * 
+     * @param lSaturationWait
+     *            the wait time
+     */
+    public void setSaturationWait( long lSaturationWait )
+    {
+        _lSaturationWait = lSaturationWait;
+    }
+
+    /**
+     * Set the time in milliseconds a due trigger is left to the less loaded nodes
+     * 
+     * @param lAcquisitionDeferral
+     *            the deferral
+     */
+    public void setAcquisitionDeferral( long lAcquisitionDeferral )
+    {
+        _lAcquisitionDeferral = lAcquisitionDeferral;
+    }
+
+    @Override
+    public void initialize( ClassLoadHelper loadHelper, SchedulerSignaler signaler ) throws SchedulerConfigException
+    {
+        super.initialize( loadHelper, signaler );
+        _signaler = signaler;
+        _wakeUpExecutor = Executors.newSingleThreadScheduledExecutor( runnable -> {
+            Thread thread = new Thread( runnable, "quartz-scheduler-wakeup-" + _strSchedulerName );
+            thread.setDaemon( true );
+            return thread;
+        } );
+        INSTANCES.put( _strSchedulerName, this );
+    }
+
+    @Override
+    public void shutdown( )
+    {
+        INSTANCES.remove( _strSchedulerName, this );
+        _bShutdown = true;
+        released( );
+        if ( null != _wakeUpExecutor )
+        {
+            _wakeUpExecutor.shutdownNow( );
+        }
+        super.shutdown( );
+    }
+
+    @Override
+    public List<OperableTrigger> acquireNextTriggers( long noLaterThan, int maxCount, long timeWindow ) throws JobPersistenceException
+    {
+        int nAvailable = waitForCapacity( );
+        if ( nAvailable <= 0 )
+        {
+            return Collections.emptyList( );
+        }
+        long lNoLaterThan = noLaterThan;
+        boolean bDeferred = isMoreLoadedThanPeers( );
+        if ( bDeferred )
+        {
+            lNoLaterThan = Math.min( noLaterThan, System.currentTimeMillis( ) - _lAcquisitionDeferral );
+        }
+        List<OperableTrigger> listTriggers = super.acquireNextTriggers( lNoLaterThan, Math.min( maxCount, nAvailable ), timeWindow );
+        if ( bDeferred && listTriggers.isEmpty( ) )
+        {
+            // The triggers due now are acquired at the end of their deferral, if the less loaded nodes have not taken them
+            wakeUpAfterDeferral( );
+        }
+        for ( OperableTrigger trigger : listTriggers )
+        {
+            _setAcquired.add( trigger.getFireInstanceId( ) );
+        }
+        return listTriggers;
+    }
+
+    @Override
+    public void releaseAcquiredTrigger( OperableTrigger trigger )
+    {
+        super.releaseAcquiredTrigger( trigger );
+        if ( _setAcquired.remove( trigger.getFireInstanceId( ) ) )
+        {
+            released( );
+        }
+    }
+
+    @Override
+    public List<TriggerFiredResult> triggersFired( List<OperableTrigger> triggers ) throws JobPersistenceException
+    {
+        List<TriggerFiredResult> listResults = super.triggersFired( triggers );
+        // The triggers not fired are released by the scheduler thread
+        for ( TriggerFiredResult result : listResults )
+        {
+            if ( null != result.getTriggerFiredBundle( ) )
+            {
+                String strFireInstanceId = result.getTriggerFiredBundle( ).getTrigger( ).getFireInstanceId( );
+                _setExecuting.add( strFireInstanceId );
+                _setAcquired.remove( strFireInstanceId );
+            }
+        }
+        return listResults;
+    }
+
+    @Override
+    public void triggeredJobComplete( OperableTrigger trigger, JobDetail jobDetail, CompletedExecutionInstruction triggerInstCode )
+    {
+        super.triggeredJobComplete( trigger, jobDetail, triggerInstCode );
+        if ( _setExecuting.remove( trigger.getFireInstanceId( ) ) )
+        {
+            released( );
+        }
+    }
+
+    @Override
+    protected boolean doCheckin( ) throws JobPersistenceException
+    {
+        boolean bRecovered = super.doCheckin( );
+        try
+        {
+            executeWithoutLock( this::reportLoad );
+        }
+        catch( JobPersistenceException e )
+        {
+            _logger.warn( "Error reporting the load of the node {}", getInstanceId( ), e );
+        }
+        return bRecovered;
+    }
+
+    /**
+     * Get the number of triggers acquired and not fired yet
+     * 
+     * @return the acquired triggers count
+     */
+    public int getAcquiredCount( )
+    {
+        return _setAcquired.size( );
+    }
+
+    /**
+     * Get the number of jobs executing
+     * 
+     * @return the executing jobs count
+     */
+    public int getExecutingCount( )
+    {
+        return _setExecuting.size( );
+    }
+
+    /**
+     * Get the maximum load of the node
+     * 
+     * @return the maximum load, 0 or less if the node is never saturated
+     */
+    public int getMaxLoad( )
+    {
+        return _nMaxLoad;
+    }
+
+    /**
+     * Get the load of the node, as the percentage of its maximum load used by the acquired and executing triggers
+     * 
+     * @return the load, 0 if the node has no maximum load
+     */
+    public int getLoad( )
+    {
+        int nMaxLoad = _nMaxLoad;
+        return nMaxLoad > 0 ? ( getAcquiredCount( ) + getExecutingCount( ) ) * 100 / nMaxLoad : 0;
+    }
+
+    /**
+     * Get the loads of the live nodes of the cluster, as read at the last check-in
+     * 
+     * @return the loads by instance id
+     */
+    public Map<String, Integer> getNodeLoads( )
+    {
+        return _mapNodeLoads;
+    }
+
+    /**
+     * Wait while the node is saturated, within the saturation wait time
+     * 
+     * @return the number of triggers that can be acquired
+     */
+    private int waitForCapacity( )
+    {
+        synchronized( _lock )
+        {
+            long lDeadline = System.currentTimeMillis( ) + _lSaturationWait;
+            int nAvailable = getAvailableCount( );
+            long lWait = _lSaturationWait;
+            while ( nAvailable <= 0 && lWait > 0 && !_bShutdown )
+            {
+                try
+                {
+                    _lock.wait( lWait );
+                }
+                catch( InterruptedException e )
+                {
+                    Thread.currentThread( ).interrupt( );
+                    break;
+                }
+                nAvailable = getAvailableCount( );
+                lWait = lDeadline - System.currentTimeMillis( );
+            }
+            return nAvailable;
+        }
+    }
+
+    private int getAvailableCount( )
+    {
+        int nMaxLoad = _nMaxLoad;
+        return nMaxLoad > 0 ? nMaxLoad - getAcquiredCount( ) - getExecutingCount( ) : Integer.MAX_VALUE;
+    }
+
+    private void released( )
+    {
+        synchronized( _lock )
+        {
+            _lock.notifyAll( );
+        }
+        if ( !_bShutdown && null != _signaler )
+        {
+            // Wake up the scheduler thread, sleeping if the node was saturated at its last acquisition
+            _signaler.signalSchedulingChange( 0L );
+        }
+    }
+
+    /**
+     * Wake up the scheduler thread once the acquisition deferral has elapsed, unless a wake up is already pending
+     */
+    private void wakeUpAfterDeferral( )
+    {
+        synchronized( _lock )
+        {
+            if ( _bShutdown || ( null != _deferredWakeUp && !_deferredWakeUp.isDone( ) ) )
+            {
+                return;
+            }
+            _deferredWakeUp = _wakeUpExecutor.schedule( ( ) -> _signaler.signalSchedulingChange( 0L ), _lAcquisitionDeferral, TimeUnit.MILLISECONDS );
+        }
+    }
+
+    private boolean isMoreLoadedThanPeers( )
+    {
+        int nLoad = getLoad( );
+        String strInstanceId = getInstanceId( );
+        for ( Map.Entry<String, Integer> entry : _mapNodeLoads.entrySet( ) )
+        {
+            if ( !entry.getKey( ).equals( strInstanceId ) && entry.getValue( ) < nLoad )
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Write the load of the node in the scheduler state table and read the loads of the live nodes
+     */
+    private Void reportLoad( Connection conn ) throws JobPersistenceException
+    {
+        try
+        {
+            try ( PreparedStatement ps = conn.prepareStatement( SQL_UPDATE_LOAD.replace( "{0}", getTablePrefix( ) ) ) )
+            {
+                ps.setInt( 1, getLoad( ) );
+                ps.setString( 2, _strSchedulerName );
+                ps.setString( 3, getInstanceId( ) );
+                ps.executeUpdate( );
+            }
+            Map<String, Integer> mapNodeLoads = new HashMap<>( );
+            try ( PreparedStatement ps = conn.prepareStatement( SQL_SELECT_LOADS.replace( "{0}", getTablePrefix( ) ) ) )
+            {
+                ps.setString( 1, _strSchedulerName );
+                ps.setLong( 2, System.currentTimeMillis( ) );
+                try ( ResultSet rs = ps.executeQuery( ) )
+                {
+                    while ( rs.next( ) )
+                    {
+                        mapNodeLoads.put( rs.getString( 1 ), rs.getInt( 2 ) );
+                    }
+                }
+            }
+            _mapNodeLoads = Collections.unmodifiableMap( mapNodeLoads );
+            return null;
+        }
+        catch( SQLException e )
+        {
+            throw new JobPersistenceException( "Error reporting the node load", e );
+        }
+    }
+}
@@ -0,0 +1,562 @@
+/*
+ * Copyright (c) 2002-2025, City of Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.scheduler.quartz.utils;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.quartz.utils.ConnectionProvider;
+
+import fr.paris.lutece.plugins.scheduler.quartz.metrics.LatencyHistogram;
+
+/**
+ * Quartz connection provider with its own bounded pool of JDBC connections, so that the job store does not compete with the web requests for the
+ * connections of the Lutece pool. The prepared statements of each connection are cached, the SQL of the driver delegate being always the same. The time
+ * spent waiting for a connection, the time a connection is held and the use of the pool are measured and available through
+ * {@link #getInstance(String)}.
+ * <p>
+ * The pool should provide a connection to each worker thread plus two for the cluster check-in and the misfire handling.
+ * </p>
+ */
+public class PooledConnectionProvider implements ConnectionProvider
+{
+    private static final Map<String, PooledConnectionProvider> INSTANCES = new ConcurrentHashMap<>( );
+    private static final String DEFAULT_NAME = "quartz";
+    private static final int DEFAULT_MAX_CONNECTIONS = 7;
+    private static final long DEFAULT_MAX_WAIT = 10000;
+    private static final int DEFAULT_MAX_CACHED_STATEMENTS = 50;
+    private static final long DEFAULT_VALIDATION_IDLE_TIME = 30000;
+    private static final int VALIDATION_TIMEOUT = 5;
+    private static final String METHOD_CLOSE = "close";
+    private static final String METHOD_IS_CLOSED = "isClosed";
+    private static final String METHOD_PREPARE_STATEMENT = "prepareStatement";
+
+    private Logger _logger = LogManager.getLogger( "lutece.scheduler.quartz" );
+    private String _strName = DEFAULT_NAME;
+    private String _strDriver;
+    private String _strURL;
+    private String _strUser;
+    private String _strPassword;
+    private int _nMaxConnections = DEFAULT_MAX_CONNECTIONS;
+    private long _lMaxWait = DEFAULT_MAX_WAIT;
+    private int _nMaxCachedStatements = DEFAULT_MAX_CACHED_STATEMENTS;
+    private long _lValidationIdleTime = DEFAULT_VALIDATION_IDLE_TIME;
+    private Semaphore _permits;
+    private final Deque<PooledConnection> _idleConnections = new ConcurrentLinkedDeque<>( );
+    private final AtomicInteger _nOpenConnections = new AtomicInteger( );
+    private final LatencyHistogram _waitTime = new LatencyHistogram( );
+    private final LatencyHistogram _holdTime = new LatencyHistogram( );
+    private final LongAdder _timeouts = new LongAdder( );
+    private final LongAdder _statementCacheHits = new LongAdder( );
+    private final LongAdder _statementCacheMisses = new LongAdder( );
+    private volatile boolean _bShutdown;
+
+    /**
+     * Get the pool of the given name
+     * 
+     * @param strName
+     *            the pool name
+     * @return the pool, or null if no such pool is running
+     */
+    public static PooledConnectionProvider getInstance( String strName )
+    {
+        return INSTANCES.get( strName );
+    }
+
+    /**
+     * Get all the running pools
+     * 
+     * @return the pools
+     */
+    public static Collection<PooledConnectionProvider> getInstances( )
+    {
+        return Collections.unmodifiableCollection( INSTANCES.values( ) );
+    }
+
+    public void setName( String strName )
+    {
+        _strName = strName;
+    }
+
+    public void setDriver( String strDriver )
+    {
+        _strDriver = strDriver;
+    }
+
+    public void setURL( String strURL )
+    {
+        _strURL = strURL;
+    }
+
+    public void setUser( String strUser )
+    {
+        _strUser = strUser;
+    }
+
+    public void setPassword( String strPassword )
+    {
+        _strPassword = strPassword;
+    }
+
+    public void setMaxConnections( int nMaxConnections )
+    {
+        _nMaxConnections = nMaxConnections;
+    }
+
+    public void setMaxWait( long lMaxWait )
+    {
+        _lMaxWait = lMaxWait;
+    }
+
+    public void setMaxCachedStatements( int nMaxCachedStatements )
+    {
+        _nMaxCachedStatements = nMaxCachedStatements;
+    }
+
+    public void setValidationIdleTime( long lValidationIdleTime )
+    {
+        _lValidationIdleTime = lValidationIdleTime;
+    }
+
+    @Override
+    public void initialize( ) throws SQLException
+    {
+        if ( null == _strURL || _strURL.isEmpty( ) )
+        {
+            throw new SQLException( "The URL of the connection pool " + _strName + " is not set" );
+        }
+        if ( _nMaxConnections < 1 )
+        {
+            throw new SQLException( "The connection pool " + _strName + " needs at least one connection" );
+        }
+        if ( null != _strDriver && !_strDriver.isEmpty( ) )
+        {
+            try
+            {
+                Class.forName( _strDriver, true, Thread.currentThread( ).getContextClassLoader( ) );
+            }
+            catch( ClassNotFoundException e )
+            {
+                throw new SQLException( "JDBC driver " + _strDriver + " not found", e );
+            }
+        }
+        _permits = new Semaphore( _nMaxConnections, true );
+        INSTANCES.put( _strName, this );
+        _logger.info( "Connection pool {} initialized with {} connections", _strName, _nMaxConnections );
+    }
+
+    @Override
+    public Connection getConnection( ) throws SQLException
+    {
+        if ( _bShutdown )
+        {
+            throw new SQLException( "The connection pool " + _strName + " is shut down" );
+        }
+        long lStart = System.nanoTime( );
+        try
+        {
+            if ( !_permits.tryAcquire( _lMaxWait, TimeUnit.MILLISECONDS ) )
+            {
+                _timeouts.increment( );
+                throw new SQLException( "Timeout waiting for a connection of the pool " + _strName );
+            }
+        }
+        catch( InterruptedException e )
+        {
+            Thread.currentThread( ).interrupt( );
+            throw new SQLException( "Interrupted while waiting for a connection of the pool " + _strName, e );
+        }
+        _waitTime.record( TimeUnit.NANOSECONDS.toMillis( System.nanoTime( ) - lStart ) );
+        try
+        {
+            return borrow( ).lease( );
+        }
+        catch( SQLException | RuntimeException e )
+        {
+            _permits.release( );
+            throw e;
+        }
+    }
+
+    @Override
+    public void shutdown( ) throws SQLException
+    {
+        _bShutdown = true;
+        INSTANCES.remove( _strName, this );
+        PooledConnection connection;
+        while ( null != ( connection = _idleConnections.poll( ) ) )
+        {
+            discard( connection );
+        }
+    }
+
+    private PooledConnection borrow( ) throws SQLException
+    {
+        PooledConnection connection;
+        while ( null != ( connection = _idleConnections.poll( ) ) )
+        {
+            if ( System.currentTimeMillis( ) - connection._lReturnTime < _lValidationIdleTime || connection._physical.isValid( VALIDATION_TIMEOUT ) )
+            {
+                return connection;
+            }
+            discard( connection );
+        }
+        Connection physical = ( null == _strUser ) ? DriverManager.getConnection( _strURL ) : DriverManager.getConnection( _strURL, _strUser, _strPassword );
+        _nOpenConnections.incrementAndGet( );
+        return new PooledConnection( physical );
+    }
+
+    private void giveBack( PooledConnection connection )
+    {
+        try
+        {
+            _holdTime.record( TimeUnit.NANOSECONDS.toMillis( System.nanoTime( ) - connection._lLeaseTime ) );
+            if ( _bShutdown )
+            {
+                discard( connection );
+                return;
+            }
+            try
+            {
+                if ( !connection._physical.getAutoCommit( ) )
+                {
+                    // Nothing must leak from a transaction left open to the next borrower
+                    connection._physical.rollback( );
+                }
+                connection._lReturnTime = System.currentTimeMillis( );
+                _idleConnections.offerFirst( connection );
+            }
+            catch( SQLException e )
+            {
+                _logger.debug( "Connection of the pool {} discarded", _strName, e );
+                discard( connection );
+            }
+        }
+        finally
+        {
+            _permits.release( );
+        }
+    }
+
+    private void discard( PooledConnection connection )
+    {
+        _nOpenConnections.decrementAndGet( );
+        try
+        {
+            connection._physical.close( );
+        }
+        catch( SQLException e )
+        {
+            _logger.debug( "Error closing a connection of the pool {}", _strName, e );
+        }
+    }
+
+    public String getName( )
+    {
+        return _strName;
+    }
+
+    public int getMaxConnections( )
+    {
+        return _nMaxConnections;
+    }
+
+    /**
+     * @return the number of connections currently borrowed
+     */
+    public int getActiveCount( )
+    {
+        return null == _permits ? 0 : _nMaxConnections - _permits.availablePermits( );
+    }
+
+    /**
+     * @return the number of threads waiting for a connection
+     */
+    public int getWaitingCount( )
+    {
+        return null == _permits ? 0 : _permits.getQueueLength( );
+    }
+
+    /**
+     * @return the number of physical connections open
+     */
+    public int getOpenCount( )
+    {
+        return _nOpenConnections.get( );
+    }
+
+    public int getIdleCount( )
+    {
+        return _idleConnections.size( );
+    }
+
+    /**
+     * @return the time spent waiting for a connection, in milliseconds
+     */
+    public LatencyHistogram getWaitTime( )
+    {
+        return _waitTime;
+    }
+
+    /**
+     * @return the time a connection is held by the job store, in milliseconds
+     */
+    public LatencyHistogram getHoldTime( )
+    {
+        return _holdTime;
+    }
+
+    /**
+     * @return the number of requests that gave up waiting for a connection
+     */
+    public long getTimeoutCount( )
+    {
+        return _timeouts.sum( );
+    }
+
+    public long getStatementCacheHitCount( )
+    {
+        return _statementCacheHits.sum( );
+    }
+
+    public long getStatementCacheMissCount( )
+    {
+        return _statementCacheMisses.sum( );
+    }
+
+    @Override
+    public String toString( )
+    {
+        return String.format( "%s active=%d/%d open=%d idle=%d waiting=%d timeouts=%d wait[p50=%d p99=%d max=%d] hold[p50=%d p99=%d max=%d] statements[hits=%d misses=%d]",
+                _strName, getActiveCount( ), _nMaxConnections, getOpenCount( ), getIdleCount( ), getWaitingCount( ), getTimeoutCount( ),
+                _waitTime.getPercentile( 50 ), _waitTime.getPercentile( 99 ), _waitTime.getMax( ), _holdTime.getPercentile( 50 ), _holdTime.getPercentile( 99 ),
+                _holdTime.getMax( ), getStatementCacheHitCount( ), getStatementCacheMissCount( ) );
+    }
+
+    private static Object invoke( Object target, Method method, Object [ ] args ) throws Throwable
+    {
+        try
+        {
+            return method.invoke( target, args );
+        }
+        catch( InvocationTargetException e )
+        {
+            throw e.getCause( );
+        }
+    }
+
+    /**
+     * A physical connection of the pool with its statement cache. A connection is used by a single thread at a time.
+     */
+    private final class PooledConnection
+    {
+        private final Connection _physical;
+        private final Map<String, PreparedStatement> _mapStatements;
+        private final Set<String> _setStatementsInUse = new HashSet<>( );
+        private long _lReturnTime = System.currentTimeMillis( );
+        private long _lLeaseTime;
+
+        PooledConnection( Connection physical )
+        {
+            _physical = physical;
+            _mapStatements = new LinkedHashMap<>( 16, 0.75f, true )
+            {
+                private static final long serialVersionUID = 1L;
+
+                @Override
+                protected boolean removeEldestEntry( Map.Entry<String, PreparedStatement> eldest )
+                {
+                    if ( size( ) <= _nMaxCachedStatements )
+                    {
+                        return false;
+                    }
+                    if ( !_setStatementsInUse.contains( eldest.getKey( ) ) )
+                    {
+                        closeQuietly( eldest.getValue( ) );
+                    }
+                    return true;
+                }
+            };
+        }
+
+        /**
+         * Get a handle on the connection, returned to the pool when closed
+         */
+        Connection lease( )
+        {
+            _lLeaseTime = System.nanoTime( );
+            InvocationHandler handler = new InvocationHandler( )
+            {
+                private boolean _bClosed;
+
+                @Override
+                public Object invoke( Object proxy, Method method, Object [ ] args ) throws Throwable
+                {
+                    if ( METHOD_CLOSE.equals( method.getName( ) ) && null == args )
+                    {
+                        if ( !_bClosed )
+                        {
+                            _bClosed = true;
+                            giveBack( PooledConnection.this );
+                        }
+                        return null;
+                    }
+                    if ( METHOD_IS_CLOSED.equals( method.getName( ) ) && null == args )
+                    {
+                        return _bClosed;
+                    }
+                    if ( _bClosed )
+                    {
+                        throw new SQLException( "Connection closed" );
+                    }
+                    if ( METHOD_PREPARE_STATEMENT.equals( method.getName( ) ) && null != args && 1 == args.length && _nMaxCachedStatements > 0 )
+                    {
+                        return prepareStatement( (String) args [0] );
+                    }
+                    return PooledConnectionProvider.invoke( _physical, method, args );
+                }
+            };
+            return (Connection) Proxy.newProxyInstance( Connection.class.getClassLoader( ), new Class<?> [ ] {
+                    Connection.class
+            }, handler );
+        }
+
+        private PreparedStatement prepareStatement( String strSql ) throws SQLException
+        {
+            if ( _setStatementsInUse.contains( strSql ) )
+            {
+                // Same statement opened twice : the second one is not cached
+                _statementCacheMisses.increment( );
+                return _physical.prepareStatement( strSql );
+            }
+            PreparedStatement statement = _mapStatements.get( strSql );
+            if ( null == statement )
+            {
+                _statementCacheMisses.increment( );
+                statement = _physical.prepareStatement( strSql );
+                _mapStatements.put( strSql, statement );
+            }
+            else
+            {
+                _statementCacheHits.increment( );
+            }
+            _setStatementsInUse.add( strSql );
+            PreparedStatement cached = statement;
+            InvocationHandler handler = new InvocationHandler( )
+            {
+                private boolean _bClosed;
+
+                @Override
+                public Object invoke( Object proxy, Method method, Object [ ] args ) throws Throwable
+                {
+                    if ( METHOD_CLOSE.equals( method.getName( ) ) && null == args )
+                    {
+                        if ( !_bClosed )
+                        {
+                            _bClosed = true;
+                            releaseStatement( strSql, cached );
+                        }
+                        return null;
+                    }
+                    if ( METHOD_IS_CLOSED.equals( method.getName( ) ) && null == args )
+                    {
+                        return _bClosed;
+                    }
+                    if ( _bClosed )
+                    {
+                        throw new SQLException( "Statement closed" );
+                    }
+                    return PooledConnectionProvider.invoke( cached, method, args );
+                }
+            };
+            return (PreparedStatement) Proxy.newProxyInstance( PreparedStatement.class.getClassLoader( ), new Class<?> [ ] {
+                    PreparedStatement.class
+            }, handler );
+        }
+
+        private void releaseStatement( String strSql, PreparedStatement statement ) throws SQLException
+        {
+            _setStatementsInUse.remove( strSql );
+            if ( _mapStatements.get( strSql ) != statement )
+            {
+                // Evicted from the cache while in use
+                statement.close( );
+                return;
+            }
+            try
+            {
+                statement.clearParameters( );
+                statement.clearWarnings( );
+            }
+            catch( SQLException e )
+            {
+                _mapStatements.remove( strSql );
+                closeQuietly( statement );
+            }
+        }
+
+        private void closeQuietly( PreparedStatement statement )
+        {
+            try
+            {
+                statement.close( );
+            }
+            catch( SQLException e )
+            {
+                _logger.debug( "Error closing a cached statement of the pool {}", _strName, e );
+            }
+        }
+    }
+}
@@ -0,0 +1,275 @@
+/*
+ * Copyright (c) 2002-2025, City of Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.scheduler.quartz.utils;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.quartz.SchedulerConfigException;
+import org.quartz.spi.ThreadPool;
+
+/**
+ * Quartz thread pool that runs each job in its own virtual thread. Blocking daemons (mail, indexing, remote calls) no longer hold a scarce platform thread
+ * while they wait. The number of concurrent executions can optionally be capped through the <code>org.quartz.threadPool.maxConcurrency</code> property, a
+ * value lower or equal to zero meaning no limit.
+ * <p>
+ * Virtual threads require Java 21. The plugin targets Java 17, so the virtual thread API is looked up at runtime : the pool fails to initialize on an
+ * older runtime, and only when it is configured.
+ * </p>
+ */
+public class VirtualThreadPool implements ThreadPool
+{
+    private static final String THREAD_NAME_SUFFIX = "_VirtualWorker-";
+
+    private Logger _logger = LogManager.getLogger( "lutece.scheduler.quartz" );
+    private final Object _lock = new Object( );
+    private ExecutorService _executor;
+    private String _strInstanceName = "";
+    private int _nMaxConcurrency;
+    private int _nRunning;
+    private boolean _bShutdown;
+
+    /**
+     * Set the maximum number of jobs executed at the same time
+     * 
+     * @param nMaxConcurrency
+     *            the maximum number of concurrent executions, lower or equal to zero for no limit
+     */
+    public void setMaxConcurrency( int nMaxConcurrency )
+    {
+        _nMaxConcurrency = nMaxConcurrency;
+    }
+
+    /**
+     * Get the maximum number of jobs executed at the same time
+     * 
+     * @return the maximum number of concurrent executions, lower or equal to zero for no limit
+     */
+    public int getMaxConcurrency( )
+    {
+        return _nMaxConcurrency;
+    }
+
+    /**
+     * Get the number of jobs currently running in this pool
+     * 
+     * @return the number of running jobs
+     */
+    public int getRunningCount( )
+    {
+        synchronized( _lock )
+        {
+            return _nRunning;
+        }
+    }
+
+    @Override
+    public boolean runInThread( Runnable runnable )
+    {
+        if ( runnable == null )
+        {
+            return false;
+        }
+        synchronized( _lock )
+        {
+            while ( isSaturated( ) && !_bShutdown )
+            {
+                waitForRelease( );
+            }
+            if ( _bShutdown )
+            {
+                return false;
+            }
+            _nRunning++;
+        }
+        try
+        {
+            _executor.execute( ( ) -> runAndRelease( runnable ) );
+        }
+        catch( RejectedExecutionException e )
+        {
+            _logger.error( "Job execution rejected by the virtual thread pool", e );
+            release( );
+            return false;
+        }
+        return true;
+    }
+
+    @Override
+    public int blockForAvailableThreads( )
+    {
+        synchronized( _lock )
+        {
+            while ( isSaturated( ) && !_bShutdown )
+            {
+                waitForRelease( );
+            }
+            return _nMaxConcurrency > 0 ? _nMaxConcurrency - _nRunning : Integer.MAX_VALUE;
+        }
+    }
+
+    @Override
+    public void initialize( ) throws SchedulerConfigException
+    {
+        _executor = newVirtualThreadExecutor( _strInstanceName + THREAD_NAME_SUFFIX );
+        _logger.info( "Virtual thread pool initialized for scheduler {} with max concurrency {}", _strInstanceName,
+                _nMaxConcurrency > 0 ? _nMaxConcurrency : "unbounded" );
+    }
+
+    /**
+     * Create an executor starting a virtual thread per task, through the Java 21 API looked up at runtime
+     */
+    private static ExecutorService newVirtualThreadExecutor( String strNamePrefix ) throws SchedulerConfigException
+    {
+        try
+        {
+            MethodHandles.Lookup lookup = MethodHandles.publicLookup( );
+            Class<?> builderClass = Class.forName( "java.lang.Thread$Builder" );
+            Class<?> virtualBuilderClass = Class.forName( "java.lang.Thread$Builder$OfVirtual" );
+            Object builder = lookup.findStatic( Thread.class, "ofVirtual", MethodType.methodType( virtualBuilderClass ) ).invoke( );
+            builder = lookup.findVirtual( builderClass, "name", MethodType.methodType( builderClass, String.class, long.class ) ).invoke( builder,
+                    strNamePrefix, 1L );
+            ThreadFactory factory = (ThreadFactory) lookup.findVirtual( builderClass, "factory", MethodType.methodType( ThreadFactory.class ) ).invoke( builder );
+            return (ExecutorService) lookup
+                    .findStatic( Executors.class, "newThreadPerTaskExecutor", MethodType.methodType( ExecutorService.class, ThreadFactory.class ) )
+                    .invoke( factory );
+        }
+        catch( ReflectiveOperationException e )
+        {
+            throw new SchedulerConfigException( "The virtual thread pool requires Java 21 or later", e );
+        }
+        catch( Throwable e )
+        {
+            throw new SchedulerConfigException( "Error creating the virtual thread executor", e );
+        }
+    }
+
+    @Override
+    public void shutdown( boolean waitForJobsToComplete )
+    {
+        synchronized( _lock )
+        {
+            _bShutdown = true;
+            _lock.notifyAll( );
+        }
+        if ( _executor == null )
+        {
+            return;
+        }
+        _executor.shutdown( );
+        if ( waitForJobsToComplete )
+        {
+            try
+            {
+                while ( !_executor.awaitTermination( 1, TimeUnit.SECONDS ) )
+                {
+                    _logger.debug( "Waiting for {} running jobs to complete", getRunningCount( ) );
+                }
+            }
+            catch( InterruptedException e )
+            {
+                Thread.currentThread( ).interrupt( );
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * 
+     * @return the maximum concurrency when the pool is bounded, -1 otherwise
+     */
+    @Override
+    public int getPoolSize( )
+    {
+        return _nMaxConcurrency > 0 ? _nMaxConcurrency : -1;
+    }
+
+    @Override
+    public void setInstanceId( String schedInstId )
+    {
+        // Not used
+    }
+
+    @Override
+    public void setInstanceName( String schedName )
+    {
+        _strInstanceName = schedName;
+    }
+
+    private void runAndRelease( Runnable runnable )
+    {
+        try
+        {
+            runnable.run( );
+        }
+        finally
+        {
+            release( );
+        }
+    }
+
+    private void release( )
+    {
+        synchronized( _lock )
+        {
+            _nRunning--;
+            _lock.notifyAll( );
+        }
+    }
+
+    private boolean isSaturated( )
+    {
+        return _nMaxConcurrency > 0 && _nRunning >= _nMaxConcurrency;
+    }
+
+    private void waitForRelease( )
+    {
+        try
+        {
+            _lock.wait( 500 );
+        }
+        catch( InterruptedException e )
+        {
+            // Same behavior as the Quartz SimpleThreadPool : keep waiting
+            _logger.debug( "Interrupted while waiting for an available thread" );
+        }
+    }
+}
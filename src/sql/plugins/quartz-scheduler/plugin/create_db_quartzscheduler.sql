@@ -12,6 +12,7 @@ DROP TABLE IF EXISTS qrtz_BLOB_TRIGGERS;
 DROP TABLE IF EXISTS qrtz_TRIGGERS;
 DROP TABLE IF EXISTS qrtz_JOB_DETAILS;
 DROP TABLE IF EXISTS qrtz_CALENDARS;
+DROP TABLE IF EXISTS quartzscheduler_lease;
 
 
 CREATE TABLE qrtz_JOB_DETAILS
@@ -148,6 +149,7 @@ CREATE TABLE qrtz_SCHEDULER_STATE
     INSTANCE_NAME VARCHAR(200) NOT NULL,
     LAST_CHECKIN_TIME BIGINT(13) NOT NULL,
     CHECKIN_INTERVAL BIGINT(13) NOT NULL,
+    NODE_LOAD INTEGER DEFAULT 0 NOT NULL,
     PRIMARY KEY (SCHED_NAME,INSTANCE_NAME)
 );
 
@@ -156,4 +158,37 @@ CREATE TABLE qrtz_LOCKS
     SCHED_NAME VARCHAR(120) NOT NULL,
     LOCK_NAME  VARCHAR(40) NOT NULL,
     PRIMARY KEY (SCHED_NAME,LOCK_NAME)
-);
\ No newline at end of file
+);
+
+CREATE TABLE quartzscheduler_lease
+  (
+    LEASE_NAME VARCHAR(200) NOT NULL,
+    OWNER VARCHAR(200) NOT NULL,
+    FIRE_TIME BIGINT NOT NULL,
+    EXPIRATION_TIME BIGINT NOT NULL,
+    PRIMARY KEY (LEASE_NAME)
+);
+
+-- Indexes used by the trigger acquisition, the misfire scans and the cluster recovery
+CREATE INDEX IDX_QRTZ_J_REQ_RECOVERY ON qrtz_JOB_DETAILS(SCHED_NAME,REQUESTS_RECOVERY);
+CREATE INDEX IDX_QRTZ_J_GRP ON qrtz_JOB_DETAILS(SCHED_NAME,JOB_GROUP);
+
+CREATE INDEX IDX_QRTZ_T_J ON qrtz_TRIGGERS(SCHED_NAME,JOB_NAME,JOB_GROUP);
+CREATE INDEX IDX_QRTZ_T_JG ON qrtz_TRIGGERS(SCHED_NAME,JOB_GROUP);
+CREATE INDEX IDX_QRTZ_T_C ON qrtz_TRIGGERS(SCHED_NAME,CALENDAR_NAME);
+CREATE INDEX IDX_QRTZ_T_G ON qrtz_TRIGGERS(SCHED_NAME,TRIGGER_GROUP);
+CREATE INDEX IDX_QRTZ_T_STATE ON qrtz_TRIGGERS(SCHED_NAME,TRIGGER_STATE);
+CREATE INDEX IDX_QRTZ_T_N_STATE ON qrtz_TRIGGERS(SCHED_NAME,TRIGGER_NAME,TRIGGER_GROUP,TRIGGER_STATE);
+CREATE INDEX IDX_QRTZ_T_N_G_STATE ON qrtz_TRIGGERS(SCHED_NAME,TRIGGER_GROUP,TRIGGER_STATE);
+CREATE INDEX IDX_QRTZ_T_NEXT_FIRE_TIME ON qrtz_TRIGGERS(SCHED_NAME,NEXT_FIRE_TIME);
+CREATE INDEX IDX_QRTZ_T_NFT_ST ON qrtz_TRIGGERS(SCHED_NAME,TRIGGER_STATE,NEXT_FIRE_TIME);
+CREATE INDEX IDX_QRTZ_T_NFT_MISFIRE ON qrtz_TRIGGERS(SCHED_NAME,MISFIRE_INSTR,NEXT_FIRE_TIME);
+CREATE INDEX IDX_QRTZ_T_NFT_ST_MISFIRE ON qrtz_TRIGGERS(SCHED_NAME,MISFIRE_INSTR,NEXT_FIRE_TIME,TRIGGER_STATE);
+CREATE INDEX IDX_QRTZ_T_NFT_ST_MISFIRE_GRP ON qrtz_TRIGGERS(SCHED_NAME,MISFIRE_INSTR,NEXT_FIRE_TIME,TRIGGER_GROUP,TRIGGER_STATE);
+
+CREATE INDEX IDX_QRTZ_FT_TRIG_INST_NAME ON qrtz_FIRED_TRIGGERS(SCHED_NAME,INSTANCE_NAME);
+CREATE INDEX IDX_QRTZ_FT_INST_JOB_REQ_RCVRY ON qrtz_FIRED_TRIGGERS(SCHED_NAME,INSTANCE_NAME,REQUESTS_RECOVERY);
+CREATE INDEX IDX_QRTZ_FT_J_G ON qrtz_FIRED_TRIGGERS(SCHED_NAME,JOB_NAME,JOB_GROUP);
+CREATE INDEX IDX_QRTZ_FT_JG ON qrtz_FIRED_TRIGGERS(SCHED_NAME,JOB_GROUP);
+CREATE INDEX IDX_QRTZ_FT_T_G ON qrtz_FIRED_TRIGGERS(SCHED_NAME,TRIGGER_NAME,TRIGGER_GROUP);
+CREATE INDEX IDX_QRTZ_FT_TG ON qrtz_FIRED_TRIGGERS(SCHED_NAME,TRIGGER_GROUP);
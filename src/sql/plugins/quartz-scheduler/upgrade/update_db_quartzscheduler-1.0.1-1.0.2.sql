@@ -0,0 +1,16 @@
+--liquibase formatted sql
+--changeset quartz-scheduler:update_db_quartzscheduler-1.0.1-1.0.2.sql
+--preconditions onFail:MARK_RAN onError:WARN
+
+-- Leases of the exclusive daemons
+CREATE TABLE quartzscheduler_lease
+  (
+    LEASE_NAME VARCHAR(200) NOT NULL,
+    OWNER VARCHAR(200) NOT NULL,
+    FIRE_TIME BIGINT NOT NULL,
+    EXPIRATION_TIME BIGINT NOT NULL,
+    PRIMARY KEY (LEASE_NAME)
+);
+
+-- Load of the nodes, reported by the load aware job store
+ALTER TABLE qrtz_SCHEDULER_STATE ADD NODE_LOAD INTEGER DEFAULT 0 NOT NULL;
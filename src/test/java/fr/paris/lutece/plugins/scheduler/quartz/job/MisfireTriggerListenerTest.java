@@ -0,0 +1,193 @@
+/*
+ * Copyright (c) 2002-2025, City of Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.scheduler.quartz.job;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.function.ObjLongConsumer;
+
+import org.junit.jupiter.api.Test;
+import org.quartz.CronScheduleBuilder;
+import org.quartz.JobBuilder;
+import org.quartz.JobDetail;
+import org.quartz.JobExecutionContext;
+import org.quartz.JobKey;
+import org.quartz.SimpleScheduleBuilder;
+import org.quartz.Trigger;
+import org.quartz.TriggerBuilder;
+import org.quartz.impl.JobExecutionContextImpl;
+import org.quartz.spi.OperableTrigger;
+import org.quartz.spi.TriggerFiredBundle;
+
+import fr.paris.lutece.plugins.scheduler.quartz.Constants;
+import fr.paris.lutece.plugins.scheduler.quartz.service.JobMetricsService;
+
+/**
+ * MisfireTriggerListener tests
+ */
+public class MisfireTriggerListenerTest
+{
+    private static final JobKey JOB_KEY = new JobKey( "myDaemon", Constants.DEFAULT_GROUP );
+    // Fixed clock, half a second after the start of a second
+    private static final long NOW = 1700000000500L;
+
+    private final List<Long> _listDeferrals = new ArrayList<>( );
+    private final ObjLongConsumer<JobKey> _deferral = ( jobKey, lDelay ) -> _listDeferrals.add( lDelay );
+
+    /**
+     * The replays over the limit are vetoed and deferred to the next second with replay budget left
+     */
+    @Test
+    public void testReplayOverLimitIsDeferred( )
+    {
+        JobMetricsService metricsService = new JobMetricsService( );
+        MisfireTriggerListener listener = new MisfireTriggerListener( metricsService, 1, _deferral, ( ) -> NOW );
+        Trigger first = createReplayedTrigger( "first" );
+        Trigger second = createReplayedTrigger( "second" );
+        Trigger third = createReplayedTrigger( "third" );
+
+        listener.triggerMisfired( first );
+        listener.triggerMisfired( second );
+        listener.triggerMisfired( third );
+
+        assertFalse( listener.vetoJobExecution( first, createContext( first, NOW ) ) );
+        JobExecutionContext secondContext = createContext( second, NOW );
+        assertTrue( listener.vetoJobExecution( second, secondContext ) );
+        assertTrue( listener.vetoJobExecution( third, createContext( third, NOW ) ) );
+
+        assertEquals( Boolean.TRUE, secondContext.get( Constants.FIRE_VETOED_CONTEXT_KEY ) );
+        assertEquals( List.of( 500L, 1500L ), _listDeferrals );
+        assertEquals( 2, metricsService.getMetrics( JOB_KEY ).getThrottledMisfireCount( ) );
+    }
+
+    /**
+     * A replay vetoed by a later listener gives back its replay budget
+     */
+    @Test
+    public void testCancelledReplayGivesBackBudget( )
+    {
+        JobMetricsService metricsService = new JobMetricsService( );
+        MisfireTriggerListener listener = new MisfireTriggerListener( metricsService, 1, _deferral, ( ) -> NOW );
+        Trigger first = createReplayedTrigger( "first" );
+        Trigger second = createReplayedTrigger( "second" );
+
+        listener.triggerMisfired( first );
+        listener.triggerMisfired( second );
+        JobExecutionContext firstContext = createContext( first, NOW );
+        assertFalse( listener.vetoJobExecution( first, firstContext ) );
+        listener.cancelReplay( firstContext );
+
+        assertFalse( listener.vetoJobExecution( second, createContext( second, NOW ) ) );
+        assertTrue( _listDeferrals.isEmpty( ) );
+    }
+
+    /**
+     * A misfire handled without firing now does not make the next regular fire a replay
+     */
+    @Test
+    public void testDoNothingMisfireIsNotReplayed( )
+    {
+        JobMetricsService metricsService = new JobMetricsService( );
+        MisfireTriggerListener listener = new MisfireTriggerListener( metricsService, 1, _deferral, ( ) -> NOW );
+        Trigger replayed = createReplayedTrigger( "replayed" );
+        Trigger doNothing = TriggerBuilder.newTrigger( ).withIdentity( "doNothing" ).forJob( JOB_KEY )
+                .withSchedule( CronScheduleBuilder.cronSchedule( "0 0 * * * ?" ).withMisfireHandlingInstructionDoNothing( ) ).build( );
+
+        listener.triggerMisfired( replayed );
+        listener.triggerMisfired( doNothing );
+        // The replay uses the only replay allowed in the current second
+        assertFalse( listener.vetoJobExecution( replayed, createContext( replayed, NOW ) ) );
+
+        assertFalse( listener.vetoJobExecution( doNothing, createContext( doNothing, NOW ) ) );
+        assertEquals( 0, metricsService.getMetrics( JOB_KEY ).getThrottledMisfireCount( ) );
+    }
+
+    /**
+     * An interval trigger repeating forever with the smart policy waits for its next fire time
+     */
+    @Test
+    public void testSmartPolicyOfIntervalTriggerIsNotReplayed( )
+    {
+        JobMetricsService metricsService = new JobMetricsService( );
+        MisfireTriggerListener listener = new MisfireTriggerListener( metricsService, 1, _deferral, ( ) -> NOW );
+        Trigger replayed = TriggerBuilder.newTrigger( ).withIdentity( "replayed" ).forJob( JOB_KEY )
+                .withSchedule( SimpleScheduleBuilder.repeatSecondlyForever( 10 ).withMisfireHandlingInstructionNowWithExistingCount( ) ).build( );
+        Trigger smart = TriggerBuilder.newTrigger( ).withIdentity( "smart" ).forJob( JOB_KEY ).withSchedule( SimpleScheduleBuilder.repeatSecondlyForever( 10 ) )
+                .build( );
+
+        listener.triggerMisfired( replayed );
+        listener.triggerMisfired( smart );
+        assertFalse( listener.vetoJobExecution( replayed, createContext( replayed, NOW ) ) );
+
+        assertFalse( listener.vetoJobExecution( smart, createContext( smart, NOW ) ) );
+    }
+
+    /**
+     * A regular fire long after the misfire is not a replay
+     */
+    @Test
+    public void testLaterFireIsNotReplayed( )
+    {
+        JobMetricsService metricsService = new JobMetricsService( );
+        MisfireTriggerListener listener = new MisfireTriggerListener( metricsService, 1, _deferral, ( ) -> NOW );
+        Trigger first = createReplayedTrigger( "first" );
+        Trigger second = createReplayedTrigger( "second" );
+
+        listener.triggerMisfired( first );
+        listener.triggerMisfired( second );
+        assertFalse( listener.vetoJobExecution( first, createContext( first, NOW ) ) );
+
+        // The replay of the second trigger ran elsewhere, its next fire is an hour later
+        assertFalse( listener.vetoJobExecution( second, createContext( second, NOW + 3600000L ) ) );
+    }
+
+    private static Trigger createReplayedTrigger( String strName )
+    {
+        return TriggerBuilder.newTrigger( ).withIdentity( strName ).forJob( JOB_KEY )
+                .withSchedule( CronScheduleBuilder.cronSchedule( "0 0 * * * ?" ).withMisfireHandlingInstructionFireAndProceed( ) ).build( );
+    }
+
+    private static JobExecutionContext createContext( Trigger trigger, long lScheduledFireTime )
+    {
+        JobDetail job = JobBuilder.newJob( DaemonJob.class ).withIdentity( JOB_KEY ).build( );
+        Date scheduledFireTime = new Date( lScheduledFireTime );
+        TriggerFiredBundle bundle = new TriggerFiredBundle( job, (OperableTrigger) trigger, null, false, new Date( ), scheduledFireTime, null, null );
+        return new JobExecutionContextImpl( null, bundle, null );
+    }
+}
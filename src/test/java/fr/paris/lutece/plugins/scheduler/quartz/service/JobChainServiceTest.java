@@ -0,0 +1,178 @@
+/*
+ * Copyright (c) 2002-2025, City of Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.scheduler.quartz.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.reflect.Field;
+import java.util.Collections;
+import java.util.Properties;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.quartz.DisallowConcurrentExecution;
+import org.quartz.Job;
+import org.quartz.JobBuilder;
+import org.quartz.JobExecutionContext;
+import org.quartz.JobExecutionException;
+import org.quartz.JobKey;
+import org.quartz.Scheduler;
+import org.quartz.impl.StdSchedulerFactory;
+import org.quartz.listeners.JobListenerSupport;
+
+import fr.paris.lutece.plugins.scheduler.quartz.Constants;
+
+/**
+ * JobChainService tests
+ */
+public class JobChainServiceTest
+{
+    private static final JobKey UPSTREAM_JOB = new JobKey( "upstreamDaemon", Constants.DEFAULT_GROUP );
+    private static final JobKey DOWNSTREAM_JOB = new JobKey( "downstreamDaemon", Constants.DEFAULT_GROUP );
+    private static final AtomicInteger RUN_COUNT = new AtomicInteger( );
+    private static volatile CountDownLatch _firstRunStarted;
+    private static volatile CountDownLatch _firstRunReleased;
+    private static volatile CountDownLatch _secondRunCompleted;
+
+    private Scheduler _scheduler;
+    private JobSchedulerService _jobSchedulerService;
+    private JobChainService _jobChainService;
+
+    @BeforeEach
+    public void setUp( ) throws Exception
+    {
+        RUN_COUNT.set( 0 );
+        _firstRunStarted = new CountDownLatch( 1 );
+        _firstRunReleased = new CountDownLatch( 1 );
+        _secondRunCompleted = new CountDownLatch( 1 );
+
+        Properties properties = new Properties( );
+        properties.setProperty( "org.quartz.scheduler.instanceName", "JobChainServiceTest" );
+        properties.setProperty( "org.quartz.threadPool.threadCount", "2" );
+        properties.setProperty( "org.quartz.jobStore.class", "org.quartz.simpl.RAMJobStore" );
+        _scheduler = new StdSchedulerFactory( properties ).getScheduler( );
+        _jobSchedulerService = new JobSchedulerService( );
+        setField( _jobSchedulerService, "_localScheduler", _scheduler );
+        _jobChainService = new JobChainService( );
+        setField( _jobChainService, "_jobSchedulerService", _jobSchedulerService );
+        _jobChainService.register( DOWNSTREAM_JOB, Collections.singleton( UPSTREAM_JOB ) );
+
+        // Notifies the chain service as the DaemonEntryJobListener does
+        _scheduler.getListenerManager( ).addJobListener( new JobListenerSupport( )
+        {
+            @Override
+            public String getName( )
+            {
+                return "chain";
+            }
+
+            @Override
+            public void jobToBeExecuted( JobExecutionContext context )
+            {
+                _jobChainService.jobStarted( context.getJobDetail( ).getKey( ) );
+            }
+
+            @Override
+            public void jobWasExecuted( JobExecutionContext context, JobExecutionException jobException )
+            {
+                _jobChainService.jobCompleted( context.getJobDetail( ).getKey( ), null == jobException );
+                if ( RUN_COUNT.get( ) >= 2 )
+                {
+                    _secondRunCompleted.countDown( );
+                }
+            }
+        } );
+        _scheduler.addJob( JobBuilder.newJob( ChainedJob.class ).withIdentity( DOWNSTREAM_JOB ).storeDurably( ).build( ), false );
+        _scheduler.start( );
+    }
+
+    @AfterEach
+    public void tearDown( ) throws Exception
+    {
+        _firstRunReleased.countDown( );
+        _scheduler.shutdown( true );
+    }
+
+    /**
+     * An upstream job completing while a requested run of its downstream job is in progress makes the downstream job run again
+     */
+    @Test
+    public void testRequestDuringRequestedRunIsReplayed( ) throws Exception
+    {
+        assertTrue( _jobSchedulerService.enqueueJob( DOWNSTREAM_JOB, 0 ) );
+        assertTrue( _firstRunStarted.await( 10, TimeUnit.SECONDS ) );
+
+        _jobChainService.jobCompleted( UPSTREAM_JOB, true );
+        _firstRunReleased.countDown( );
+
+        assertTrue( _secondRunCompleted.await( 10, TimeUnit.SECONDS ) );
+        assertEquals( 2, RUN_COUNT.get( ) );
+    }
+
+    private static void setField( Object target, String strName, Object value ) throws Exception
+    {
+        Field field = target.getClass( ).getDeclaredField( strName );
+        field.setAccessible( true );
+        field.set( target, value );
+    }
+
+    /**
+     * Downstream job, its first run waiting for the test
+     */
+    @DisallowConcurrentExecution
+    public static class ChainedJob implements Job
+    {
+        @Override
+        public void execute( JobExecutionContext context ) throws JobExecutionException
+        {
+            if ( RUN_COUNT.incrementAndGet( ) == 1 )
+            {
+                _firstRunStarted.countDown( );
+                try
+                {
+                    _firstRunReleased.await( 10, TimeUnit.SECONDS );
+                }
+                catch( InterruptedException e )
+                {
+                    Thread.currentThread( ).interrupt( );
+                }
+            }
+        }
+    }
+}